@@ -3,6 +3,7 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     id("maven-publish")
     id("com.vaadin") version "24.9.10"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 
@@ -98,6 +99,14 @@ dependencies {
 tasks.test {
     useJUnitPlatform()
 }
+
+// 基准测试：src/jmh/java，运行 ./gradlew jmh，不进入发布的 jar
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+}
 tasks.jar {
     exclude("dev/w0fv1/vaadmin/test/**") // 忽略单个类
 }
@@ -0,0 +1,77 @@
+package dev.w0fv1.vaadmin.view.form.model;
+
+import dev.w0fv1.vaadmin.test.EchoF;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比 {@link BaseFormModel#copy()} 原先的反射实现与按类编译的 {@link FormModelCopier}。
+ * <p>
+ * 运行：./gradlew jmh（结果写入 build/results/jmh）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class FormModelCopyBenchmark {
+
+    private EchoF model;
+
+    @Setup
+    public void setup() {
+        model = new EchoF("hello");
+        model.setId(1L);
+        model.setUuid("uuid");
+        model.setLongMessage("x".repeat(1024));
+        model.setFlag(true);
+        model.setKeywords(new ArrayList<>(List.of("a", "b", "c")));
+        model.setParentId(2L);
+        model.setCreatedTime(OffsetDateTime.now());
+        model.setUpdatedTime(OffsetDateTime.now());
+        model.addVaadminFormConfig("key", "value");
+    }
+
+    @Benchmark
+    public EchoF reflection() {
+        return reflectiveCopy(model);
+    }
+
+    @Benchmark
+    public EchoF methodHandle() {
+        return model.copy();
+    }
+
+    @Benchmark
+    public EchoF methodHandleDeep() {
+        return model.copy(true);
+    }
+
+    /**
+     * 原先 {@link BaseFormModel#copy()} 的实现
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends BaseFormModel> T reflectiveCopy(T source) {
+        try {
+            T copyInstance = (T) source.getClass().getDeclaredConstructor().newInstance();
+            Class<?> cls = source.getClass();
+            while (cls != null && !cls.equals(BaseFormModel.class.getSuperclass())) {
+                for (Field field : cls.getDeclaredFields()) {
+                    field.setAccessible(true);
+                    if (field.isAnnotationPresent(FormIgnore.class)) {
+                        continue;
+                    }
+                    field.set(copyInstance, field.get(source));
+                }
+                cls = cls.getSuperclass();
+            }
+            copyInstance.getVaadminFormConfig().putAll(source.getVaadminFormConfig());
+            return copyInstance;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to copy form model", e);
+        }
+    }
+}
@@ -2,28 +2,45 @@ package dev.w0fv1.vaadmin;
 
 import com.vaadin.flow.data.provider.QuerySortOrder;
 import com.vaadin.flow.data.provider.SortDirection;
+import com.fasterxml.jackson.databind.JsonNode;
 import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+import dev.w0fv1.vaadmin.entity.EntityAccessor;
+import dev.w0fv1.vaadmin.util.JsonUtil;
 import jakarta.persistence.*;
 import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
 import jakarta.transaction.Transactional;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
  * 通用仓库：封装了 <b>CRUD / 分页 / 动态过滤 / 多字段排序</b> 功能。<br/>
  * - 通过 {@link PredicateManager} 组合 <code>CriteriaBuilder</code> 过滤条件；<br/>
  * - 通过 {@link SortOrder} 列表完成服务器端多字段 ASC/DESC 排序。<br/>
+ * - 通过 {@link EntityChangeListener} 在事务提交后通知实体变更。<br/>
  */
 @Slf4j
 @Component
@@ -32,11 +49,18 @@ import java.util.function.Supplier;
 @SuppressWarnings("unchecked")
 public class GenericRepository {
 
+    /**
+     * 按 id 列表查询时每批的 id 数量（IN 列表过长会超出数据库的绑定参数上限，如 PostgreSQL 的 32767）
+     */
+    public static final int IN_CHUNK_SIZE = 1000;
+
     /* -------------------------------------------------- DI -------------------------------------------------- */
     @PersistenceContext
     private EntityManager entityManager;
     private final TransactionTemplate txTemplate;
 
+    private final List<EntityChangeListener> entityChangeListeners = new CopyOnWriteArrayList<>();
+
     /* -------------------------------------------------- Tx helpers -------------------------------------------------- */
     public <T> T execute(TransactionCallback<T> cb) throws TransactionException {
         return txTemplate.execute(cb);
@@ -79,16 +103,179 @@ public class GenericRepository {
     /* -------------------------------------------------- Basic CRUD -------------------------------------------------- */
     @Transactional
     public <T extends BaseManageEntity<?>> T save(T e) {
-        if (e.getId() == null) entityManager.persist(e);
-        else e = entityManager.merge(e);
+        boolean created = e.getId() == null;
+        if (created) entityManager.persist(e);
+        // 已托管的实体由脏检查在 flush 时写入，merge 只会多复制一遍整个对象图
+        else if (!entityManager.contains(e)) e = entityManager.merge(e);
         entityManager.flush();
+        fireEntityChange(new EntityChange(Hibernate.getClass(e), e.getId(),
+                created ? EntityChange.Type.CREATED : EntityChange.Type.UPDATED));
         return e;
     }
 
     @Transactional
     public <T> void delete(T e) {
+        Object id = e instanceof BaseManageEntity<?> entity ? entity.getId() : null;
         entityManager.remove(e);
         entityManager.flush();
+        fireEntityChange(new EntityChange(Hibernate.getClass(e), id, EntityChange.Type.DELETED));
+    }
+
+    /* -------------------------------------------------- Bulk 批量操作 -------------------------------------------------- */
+
+    @FunctionalInterface
+    public interface UpdateSetter<T> {
+        void set(CriteriaBuilder cb, CriteriaUpdate<T> update, Root<T> root);
+    }
+
+    /**
+     * 以一条 UPDATE 语句更新全部匹配的行。
+     * 批量语句绕过持久化上下文与实体回调，当前事务中已加载的实体不会同步；
+     * {@code @UpdateTimestamp}、{@code @PreUpdate}、{@code @Version} 等不会生效，需要时由 setter 在语句中设置这些列；
+     * 提交后以 id 为 null 的变更通知监听器。
+     *
+     * @return 更新的行数
+     */
+    @Transactional
+    public <T> int updateAll(Class<T> type, PredicateManager<T> pm, UpdateSetter<T> setter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = cb.createCriteriaUpdate(type);
+        Root<T> root = update.from(type);
+        setter.set(cb, update, root);
+        List<jakarta.persistence.criteria.Predicate> preds = pm.buildPredicates(cb, root);
+        if (!preds.isEmpty()) update.where(preds.toArray(new jakarta.persistence.criteria.Predicate[0]));
+        int count = entityManager.createQuery(update).executeUpdate();
+        fireEntityChange(new EntityChange(type, null, EntityChange.Type.UPDATED));
+        return count;
+    }
+
+    /**
+     * 以一条 DELETE 语句删除全部匹配的行（不触发级联与实体回调），约束同 {@link #updateAll}
+     *
+     * @return 删除的行数
+     */
+    @Transactional
+    public <T> int deleteAll(Class<T> type, PredicateManager<T> pm) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<T> delete = cb.createCriteriaDelete(type);
+        Root<T> root = delete.from(type);
+        List<jakarta.persistence.criteria.Predicate> preds = pm.buildPredicates(cb, root);
+        if (!preds.isEmpty()) delete.where(preds.toArray(new jakarta.persistence.criteria.Predicate[0]));
+        int count = entityManager.createQuery(delete).executeUpdate();
+        fireEntityChange(new EntityChange(type, null, EntityChange.Type.DELETED));
+        return count;
+    }
+
+    /**
+     * 按 id 加载一批实体并逐个执行 action，由脏检查在一次 flush 中写入（不逐个 {@link #save}）；
+     * 提交后以一条带全部 id 的变更通知监听器，而不是每个实体一条。
+     *
+     * @return 处理的实体数
+     */
+    @Transactional
+    public <T extends BaseManageEntity<?>> int updateEach(Class<T> type, List<?> ids, Consumer<T> action) {
+        List<T> entities = findAll(ids, type);
+        if (entities.isEmpty()) return 0;
+        List<Object> changedIds = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            action.accept(entity);
+            changedIds.add(entity.getId());
+        }
+        entityManager.flush();
+        fireEntityChange(new EntityChange(type, null, EntityChange.Type.UPDATED, List.copyOf(changedIds)));
+        return entities.size();
+    }
+
+    /**
+     * 按 id 升序的键集分页：返回 id 大于 afterId（为 null 时从头开始）的下一批匹配 id，用于分块处理大批量数据
+     */
+    @Transactional
+    public <T> List<Object> getIdsAfter(Class<T> type, PredicateManager<T> pm, Object afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> cq = cb.createQuery(Object.class);
+        Root<T> root = cq.from(type);
+        List<jakarta.persistence.criteria.Predicate> preds = new ArrayList<>(pm.buildPredicates(cb, root));
+        if (afterId != null) {
+            preds.add(cb.greaterThan(root.<Comparable>get("id"), (Comparable) afterId));
+        }
+        cq.select(root.get("id"))
+                .where(preds.toArray(new jakarta.persistence.criteria.Predicate[0]))
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+
+    /* -------------------------------------------------- Change notification -------------------------------------------------- */
+
+    /**
+     * 实体变更描述
+     *
+     * @param entityClass 实体类型（已去除 Hibernate 代理）
+     * @param id          实体 ID；批量变更时为 null
+     * @param type        变更类型
+     * @param ids         批量变更涉及的 id（见 {@link #updateEach}）；单个实体的变更，或影响的行未知的批量语句
+     *                    （见 {@link #updateAll}/{@link #deleteAll}）时为 null
+     */
+    public record EntityChange(Class<?> entityClass, Object id, Type type, List<Object> ids) {
+        public enum Type {CREATED, UPDATED, DELETED}
+
+        public EntityChange(Class<?> entityClass, Object id, Type type) {
+            this(entityClass, id, type, null);
+        }
+
+        /**
+         * 影响的行是否未知（批量语句），此时监听方只能整体处理
+         */
+        public boolean isUnbounded() {
+            return id == null && ids == null;
+        }
+
+        /**
+         * 涉及的 id：单个实体为 [id]，已知 id 的批量变更为这批 id，影响的行未知时为空
+         */
+        public List<Object> affectedIds() {
+            if (id != null) return List.of(id);
+            return ids == null ? List.of() : ids;
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntityChangeListener {
+        void onEntityChanged(EntityChange change);
+    }
+
+    public void addEntityChangeListener(EntityChangeListener listener) {
+        entityChangeListeners.add(listener);
+    }
+
+    public void removeEntityChangeListener(EntityChangeListener listener) {
+        entityChangeListeners.remove(listener);
+    }
+
+    /**
+     * 在当前事务提交后通知监听器；回滚时不通知；无事务时立即通知。
+     */
+    private void fireEntityChange(EntityChange change) {
+        if (entityChangeListeners.isEmpty()) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyEntityChange(change);
+                }
+            });
+        } else {
+            notifyEntityChange(change);
+        }
+    }
+
+    private void notifyEntityChange(EntityChange change) {
+        for (EntityChangeListener listener : entityChangeListeners) {
+            try {
+                listener.onEntityChanged(change);
+            } catch (Exception ex) {
+                log.error("EntityChangeListener failure: {}", change, ex);
+            }
+        }
     }
 
     /* -------------------------------------------------- Page + Filter + Sort -------------------------------------------------- */
@@ -116,6 +303,10 @@ public class GenericRepository {
         private final String property;
         private final Direction direction;
 
+        /**
+         * 非空时按 JSONB 路径表达式排序（property 仅作标识）
+         */
+        private JsonPath jsonPath;
 
     }
 
@@ -130,10 +321,47 @@ public class GenericRepository {
      */
     @Transactional
     public <T> List<T> getPage(Class<T> type, int page, int size, PredicateManager<T> pm, List<SortOrder> sortOrders) {
+        TypedQuery<T> q = createFilteredQuery(type, pm, sortOrders);
+        q.setFirstResult(page * size);
+        q.setMaxResults(size);
+        return q.getResultList();
+    }
+
+    /**
+     * 以数据库游标逐条遍历全部匹配的实体（用于导出等大批量读取），必须在事务中调用。
+     * 每处理 fetchSize 条清空一次持久化上下文，内存占用与总行数无关；
+     * 因此遍历期间不应依赖此前加载的托管实体。
+     *
+     * @return 遍历的条数
+     */
+    @Transactional
+    public <T> long forEach(Class<T> type, PredicateManager<T> pm, List<SortOrder> sortOrders, int fetchSize, Consumer<T> consumer) {
+        TypedQuery<T> q = createFilteredQuery(type, pm, sortOrders);
+        q.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        q.setHint(HibernateHints.HINT_READ_ONLY, true);
+        long count = 0;
+        try (java.util.stream.Stream<T> stream = q.getResultStream()) {
+            Iterator<T> it = stream.iterator();
+            while (it.hasNext()) {
+                consumer.accept(it.next());
+                if (++count % fetchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    private <T> TypedQuery<T> createFilteredQuery(Class<T> type, PredicateManager<T> pm, List<SortOrder> sortOrders) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<T> cq = cb.createQuery(type);
         Root<T> root = cq.from(type);
+        applyFilterAndOrder(cb, cq, root, pm, sortOrders);
+        return entityManager.createQuery(cq);
+    }
 
+    private <T> void applyFilterAndOrder(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<T> root,
+                                         PredicateManager<T> pm, List<SortOrder> sortOrders) {
         // where 条件
         List<jakarta.persistence.criteria.Predicate> preds = pm.buildPredicates(cb, root);
         if (!preds.isEmpty()) {
@@ -143,20 +371,312 @@ public class GenericRepository {
         // order by
         if (sortOrders != null && !sortOrders.isEmpty()) {
             List<Order> orders = sortOrders.stream()
-                    .map(so -> so.direction == SortOrder.Direction.ASC
-                            ? cb.asc(root.get(so.property))
-                            : cb.desc(root.get(so.property)))
+                    .map(so -> {
+                        Expression<?> expression = so.jsonPath != null ? so.jsonPath.toExpression(cb, root) : root.get(so.property);
+                        return so.direction == SortOrder.Direction.ASC ? cb.asc(expression) : cb.desc(expression);
+                    })
                     .toList();
             cq.orderBy(orders);
         } else {
             // 默认按 id 升序
             cq.orderBy(cb.asc(root.get("id")));
         }
+    }
 
-        TypedQuery<T> q = entityManager.createQuery(cq);
-        q.setFirstResult(page * size);
-        q.setMaxResults(size);
-        return q.getResultList();
+    /* -------------------------------------------------- Preview 截断查询 -------------------------------------------------- */
+
+    /**
+     * 预览值：数据库侧截断后的文本与完整长度（字符数）
+     */
+    public record Preview(String text, long length) {
+        public boolean truncated() {
+            return text != null && text.length() < length;
+        }
+    }
+
+    /**
+     * 预览查询的一行：部分加载的实体 + 各预览属性的截断值 + 各 JSONB 路径的投影值（文本）
+     */
+    public record PreviewRow<T>(T entity, Map<String, Preview> previews, Map<String, String> jsonValues) {
+    }
+
+    /**
+     * 投影查询的内容
+     *
+     * @param previewLengths 截断加载的属性 → 截取的字符数
+     * @param jsonPaths      额外投影的 JSONB 路径（结果键 → 路径）
+     * @param omitted        不加载的属性（如只通过 JSONB 路径展示的文档属性），在实体上为 null
+     */
+    public record Projection(Map<String, Integer> previewLengths, Map<String, JsonPath> jsonPaths, Set<String> omitted) {
+    }
+
+    /**
+     * JSONB 路径，对应 SQL <code>jsonb_extract_path_text(source, 'a', 'b')</code>（等价于 <code>source #&gt;&gt; '{a,b}'</code>）。
+     * 路径元素以字面量内联到 SQL 中，可被同样写法的表达式索引命中，例如：
+     * <pre>CREATE INDEX ON echo ((jsonb_extract_path_text(attributes, 'address', 'city')));</pre>
+     *
+     * @param source   实体上的 JSONB 属性名
+     * @param segments 路径元素（对象成员名或数组下标）
+     */
+    public record JsonPath(String source, List<String> segments) {
+
+        private static final Pattern SEGMENT = Pattern.compile("\\.([^.\\[]+)|\\[(\\d+)]|\\['([^']*)']");
+
+        /**
+         * 解析 <code>$.address.city</code>、<code>$.items[0].name</code>、<code>$['a.b']</code> 形式的路径
+         */
+        public static JsonPath parse(String source, String path) {
+            String rest = path.trim();
+            if (rest.startsWith("$")) rest = rest.substring(1);
+            List<String> segments = new ArrayList<>();
+            Matcher matcher = SEGMENT.matcher(rest);
+            int position = 0;
+            while (matcher.find() && matcher.start() == position) {
+                segments.add(matcher.group(1) != null ? matcher.group(1)
+                        : matcher.group(2) != null ? matcher.group(2) : matcher.group(3));
+                position = matcher.end();
+            }
+            if (position != rest.length() || segments.isEmpty()) {
+                throw new IllegalArgumentException("不支持的 JSON 路径：" + path);
+            }
+            return new JsonPath(source, List.copyOf(segments));
+        }
+
+        public Expression<String> toExpression(CriteriaBuilder cb, Path<?> root) {
+            List<Expression<?>> arguments = new ArrayList<>();
+            arguments.add(root.get(source));
+            segments.forEach(segment -> arguments.add(cb.literal(segment)));
+            return cb.function("jsonb_extract_path_text", String.class, arguments.toArray(new Expression<?>[0]));
+        }
+
+        /**
+         * 在 Java 侧对已加载的文档（Map、List、JSON 字符串等）求值，结果与 SQL 一致：标量为文本，对象与数组为 JSON 文本
+         */
+        public String read(Object document) {
+            if (document == null) return null;
+            JsonNode node = JsonUtil.toJsonNode(document);
+            for (String segment : segments) {
+                node = node.isArray() && segment.chars().allMatch(Character::isDigit)
+                        ? node.path(Integer.parseInt(segment))
+                        : node.path(segment);
+            }
+            if (node.isMissingNode() || node.isNull()) return null;
+            return node.isValueNode() ? node.asText() : node.toString();
+        }
+    }
+
+    /**
+     * 分页查询，但指定属性只在数据库侧截取前 N 个字符（<code>substring(text(col), 1, N)</code>）及其长度，不加载完整值。
+     * <p>
+     * 返回的实体是<b>未托管的临时对象</b>，由 {@link EntityAccessor} 组装，只用于转换为表格模型，不可保存：
+     * - 预览属性为 null，截断值见 {@link PreviewRow#previews()}；<br/>
+     * - 多对一/一对一关联是只带 id 的临时实例（其余属性为 null），读取关联的其他属性不会触发懒加载；<br/>
+     * - 未投影的属性（省略的属性、集合属性）为 null，不会出现构造器的默认值（如随机生成的 uuid、空集合）。
+     *
+     * @param previewLengths 属性名 → 截取的字符数
+     */
+    @Transactional
+    public <T> List<PreviewRow<T>> getPreviewPage(Class<T> type, int page, int size, PredicateManager<T> pm,
+                                                  List<SortOrder> sortOrders, Map<String, Integer> previewLengths) {
+        return getPreviewPage(type, page, size, pm, sortOrders, new Projection(previewLengths, Map.of(), Set.of()));
+    }
+
+    /**
+     * 同上，并额外投影 JSONB 路径（只传输路径上的标量），可省略不需要的属性，见 {@link Projection}
+     */
+    @Transactional
+    public <T> List<PreviewRow<T>> getPreviewPage(Class<T> type, int page, int size, PredicateManager<T> pm,
+                                                  List<SortOrder> sortOrders, Projection projection) {
+        return getProjectedRows(type, page * size, size, pm, sortOrders, projection);
+    }
+
+    /**
+     * 同 {@link #getPreviewPage}，按行偏移量定位（用于偏移量不按页对齐的懒加载）
+     */
+    @Transactional
+    public <T> List<PreviewRow<T>> getProjectedRows(Class<T> type, int offset, int limit, PredicateManager<T> pm,
+                                                    List<SortOrder> sortOrders, Projection projection) {
+        Map<String, Integer> previewLengths = projection.previewLengths();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<T> root = cq.from(type);
+        EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        List<SingularAttribute<? super T, ?>> attributes = new ArrayList<>(entityType.getSingularAttributes());
+        attributes.removeIf(attribute -> projection.omitted().contains(attribute.getName()));
+        for (SingularAttribute<? super T, ?> attribute : attributes) {
+            String name = attribute.getName();
+            Integer previewLength = previewLengths.get(name);
+            if (previewLength != null) {
+                Expression<String> text = String.class.equals(attribute.getJavaType())
+                        ? root.<String>get(name)
+                        : cb.function("text", String.class, root.get(name));
+                selections.add(cb.substring(text, 1, previewLength).alias(name));
+                selections.add(cb.length(text).alias(name + "$length"));
+            } else if (attribute.isAssociation()) {
+                String idName = idAttributeName(entityManager.getMetamodel().entity(attribute.getJavaType()));
+                selections.add(root.join(name, JoinType.LEFT).get(idName).alias(name));
+            } else {
+                selections.add(root.get(name).alias(name));
+            }
+        }
+        projection.jsonPaths().forEach((key, jsonPath) ->
+                selections.add(jsonPath.toExpression(cb, root).alias("json$" + key)));
+        cq.multiselect(selections);
+        applyFilterAndOrder(cb, cq, root, pm, sortOrders);
+
+        TypedQuery<Tuple> q = entityManager.createQuery(cq);
+        q.setFirstResult(offset);
+        q.setMaxResults(limit);
+
+        EntityAccessor accessor = EntityAccessor.of(type);
+        // 未加载完整值的属性：省略的属性、集合属性与预览属性
+        List<String> unloaded = new ArrayList<>();
+        Set<String> loaded = new HashSet<>();
+        for (SingularAttribute<? super T, ?> attribute : attributes) {
+            if (!previewLengths.containsKey(attribute.getName())) loaded.add(attribute.getName());
+        }
+        for (Attribute<? super T, ?> attribute : entityType.getAttributes()) {
+            if (!loaded.contains(attribute.getName())) unloaded.add(attribute.getName());
+        }
+        Map<String, ReferenceStubs> stubs = new HashMap<>();
+        for (SingularAttribute<? super T, ?> attribute : attributes) {
+            if (attribute.isAssociation() && !previewLengths.containsKey(attribute.getName())) {
+                stubs.put(attribute.getName(), new ReferenceStubs(entityManager.getMetamodel().entity(attribute.getJavaType())));
+            }
+        }
+
+        List<PreviewRow<T>> rows = new ArrayList<>();
+        for (Tuple tuple : q.getResultList()) {
+            T entity = (T) accessor.newInstance();
+            accessor.clear(entity, unloaded);
+            Map<String, Preview> previews = new HashMap<>();
+            for (SingularAttribute<? super T, ?> attribute : attributes) {
+                String name = attribute.getName();
+                Object value = tuple.get(name);
+                if (previewLengths.containsKey(name)) {
+                    Number length = tuple.get(name + "$length", Number.class);
+                    previews.put(name, new Preview((String) value, length == null ? 0 : length.longValue()));
+                    continue;
+                }
+                ReferenceStubs referenceStubs = stubs.get(name);
+                accessor.set(entity, name, referenceStubs == null || value == null ? value : referenceStubs.get(value));
+            }
+            Map<String, String> jsonValues = new HashMap<>();
+            projection.jsonPaths().keySet().forEach(key -> jsonValues.put(key, tuple.get("json$" + key, String.class)));
+            rows.add(new PreviewRow<>(entity, previews, jsonValues));
+        }
+        return rows;
+    }
+
+    /**
+     * 读取单个属性完整文本值的一段（offset 从 0 开始），用于分块加载大字段
+     */
+    @Transactional
+    public <T, ID> String getAttributeText(Class<T> type, ID id, String attribute, long offset, int length) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> cq = cb.createQuery(String.class);
+        Root<T> root = cq.from(type);
+        Path<Object> path = root.get(attribute);
+        Expression<String> text = String.class.equals(path.getJavaType())
+                ? root.<String>get(attribute)
+                : cb.function("text", String.class, path);
+        cq.select(cb.substring(text, cb.literal((int) offset + 1), cb.literal(length)));
+        cq.where(cb.equal(root.get("id"), id));
+        return entityManager.createQuery(cq).getResultStream().findFirst().orElse(null);
+    }
+
+    /**
+     * 是否存在属性等于 value 的其他实体（排除 excludeId，为 null 时不排除），用于唯一性校验。
+     * 只查询一个 id 且最多一行，可走属性上的唯一索引。
+     */
+    @Transactional
+    public <T> boolean existsByAttribute(Class<T> type, String attribute, Object value, Object excludeId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> cq = cb.createQuery(Object.class);
+        Root<T> root = cq.from(type);
+        List<jakarta.persistence.criteria.Predicate> preds = new ArrayList<>();
+        preds.add(cb.equal(root.get(attribute), value));
+        if (excludeId != null) {
+            preds.add(cb.notEqual(root.get("id"), excludeId));
+        }
+        cq.select(root.get("id")).where(preds.toArray(new jakarta.persistence.criteria.Predicate[0]));
+        return !entityManager.createQuery(cq).setMaxResults(1).getResultList().isEmpty();
+    }
+
+    /**
+     * 以数据库游标遍历某个属性的全部非空值（不加载实体），必须在事务中调用
+     *
+     * @return 遍历的条数
+     */
+    @Transactional
+    public <T> long forEachAttributeValue(Class<T> type, String attribute, int fetchSize, Consumer<Object> consumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> cq = cb.createQuery(Object.class);
+        Root<T> root = cq.from(type);
+        cq.select(root.get(attribute)).where(cb.isNotNull(root.get(attribute)));
+        TypedQuery<Object> q = entityManager.createQuery(cq);
+        q.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        long count = 0;
+        try (java.util.stream.Stream<Object> stream = q.getResultStream()) {
+            Iterator<Object> it = stream.iterator();
+            while (it.hasNext()) {
+                consumer.accept(it.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 按 id 读取某个属性的非空值（只查询该列，不加载实体），id 每 {@link #IN_CHUNK_SIZE} 个一批，必须在事务中调用
+     */
+    @Transactional
+    public <T> List<Object> getAttributeValues(Class<T> type, String attribute, Collection<?> ids) {
+        List<?> all = new ArrayList<>(ids);
+        List<Object> values = new ArrayList<>(all.size());
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        for (int from = 0; from < all.size(); from += IN_CHUNK_SIZE) {
+            List<?> chunk = all.subList(from, Math.min(from + IN_CHUNK_SIZE, all.size()));
+            CriteriaQuery<Object> cq = cb.createQuery(Object.class);
+            Root<T> root = cq.from(type);
+            cq.select(root.get(attribute)).where(root.get("id").in(chunk), cb.isNotNull(root.get(attribute)));
+            values.addAll(entityManager.createQuery(cq).getResultList());
+        }
+        return values;
+    }
+
+    private static <X> String idAttributeName(EntityType<X> entityType) {
+        return entityType.getId(entityType.getIdType().getJavaType()).getName();
+    }
+
+    /**
+     * 投影行中某个关联的临时实例：只设置 id，其余属性为 null，同一次查询中相同 id 共用一个实例
+     */
+    private static final class ReferenceStubs {
+        private final EntityAccessor accessor;
+        private final String idName;
+        private final List<String> unloaded;
+        private final Map<Object, Object> byId = new HashMap<>();
+
+        private ReferenceStubs(EntityType<?> entityType) {
+            this.accessor = EntityAccessor.of(entityType.getJavaType());
+            this.idName = idAttributeName(entityType);
+            this.unloaded = entityType.getAttributes().stream()
+                    .map(Attribute::getName)
+                    .filter(name -> !name.equals(idName))
+                    .toList();
+        }
+
+        private Object get(Object id) {
+            return byId.computeIfAbsent(id, key -> {
+                Object stub = accessor.newInstance();
+                accessor.clear(stub, unloaded);
+                accessor.set(stub, idName, key);
+                return stub;
+            });
+        }
     }
 
 
@@ -173,12 +693,175 @@ public class GenericRepository {
         return entityManager.createQuery(cq).getSingleResult();
     }
 
+    /* -------------------------------------------------- Group by 分组统计 -------------------------------------------------- */
+
+    /**
+     * 分组统计结果
+     *
+     * @param keys  各分组属性的值（顺序同分组属性；时间类型为日期，关联为 id）
+     * @param count 组内行数
+     * @param sums  求和属性 → 组内合计
+     */
+    public record Group(List<Object> keys, long count, Map<String, Number> sums) {
+    }
+
+    /**
+     * 在给定条件下按属性分组统计（<code>GROUP BY</code>），按组内行数降序，最多返回 limit 组。
+     * 时间类型属性按日期分组，多对一关联按 id 分组。
+     */
+    @Transactional
+    public <T> List<Group> getGroups(Class<T> type, PredicateManager<T> pm, List<String> groupAttributes,
+                                     List<String> sumAttributes, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<T> root = cq.from(type);
+
+        List<Expression<?>> keys = groupAttributes.stream()
+                .<Expression<?>>map(attribute -> groupExpression(cb, root, attribute))
+                .toList();
+        Expression<Long> count = cb.count(root);
+        List<Selection<?>> selections = new ArrayList<>(keys);
+        selections.add(count);
+        for (String attribute : sumAttributes) {
+            selections.add(cb.sum(root.<Number>get(attribute)));
+        }
+        cq.multiselect(selections).groupBy(keys).orderBy(cb.desc(count));
+        List<jakarta.persistence.criteria.Predicate> preds = pm.buildPredicates(cb, root);
+        if (!preds.isEmpty()) cq.where(preds.toArray(new jakarta.persistence.criteria.Predicate[0]));
+
+        List<Group> groups = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(cq).setMaxResults(limit).getResultList()) {
+            List<Object> values = new ArrayList<>(keys.size());
+            for (int i = 0; i < keys.size(); i++) values.add(tuple.get(i));
+            Map<String, Number> sums = new LinkedHashMap<>();
+            for (int i = 0; i < sumAttributes.size(); i++) {
+                sums.put(sumAttributes.get(i), (Number) tuple.get(keys.size() + 1 + i));
+            }
+            groups.add(new Group(values, ((Number) tuple.get(keys.size())).longValue(), sums));
+        }
+        return groups;
+    }
+
+    /**
+     * 限定为某个分组的谓词（与 {@link #getGroups} 使用相同的分组表达式，null 值匹配 IS NULL）
+     */
+    public static <T> PredicateBuilder<T> groupPredicate(List<String> groupAttributes, List<Object> keys) {
+        return keyed("group:" + groupAttributes + "=" + keys, (cb, root, preds) -> {
+            for (int i = 0; i < groupAttributes.size(); i++) {
+                Expression<?> expression = groupExpression(cb, root, groupAttributes.get(i));
+                Object key = keys.get(i);
+                preds.add(key == null ? cb.isNull(expression) : cb.equal(expression, key));
+            }
+        });
+    }
+
+    private static <T> Expression<?> groupExpression(CriteriaBuilder cb, Root<T> root, String attribute) {
+        Path<Object> path = root.get(attribute);
+        Class<?> javaType = path.getJavaType();
+        if (java.time.temporal.Temporal.class.isAssignableFrom(javaType) || Date.class.isAssignableFrom(javaType)) {
+            return cb.function("date", java.time.LocalDate.class, path);
+        }
+        if (root.getModel().getAttribute(attribute) instanceof SingularAttribute<?, ?> singular && singular.isAssociation()) {
+            return path.get("id");
+        }
+        return path;
+    }
+
+    /* -------------------------------------------------- 树形（自关联）查询 -------------------------------------------------- */
+
+    /**
+     * 批量统计子节点数量：一次分组查询返回 父节点 id → 满足条件的子节点数（没有子节点的父节点不在结果中）
+     *
+     * @param parentAttribute 指向父节点的多对一属性名
+     */
+    @Transactional
+    public <T> Map<Object, Long> countChildren(Class<T> type, PredicateManager<T> pm, String parentAttribute, Collection<?> parentIds) {
+        if (parentIds == null || parentIds.isEmpty()) return Map.of();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<T> root = cq.from(type);
+        Path<Object> parentId = root.get(parentAttribute).get("id");
+
+        List<jakarta.persistence.criteria.Predicate> preds = new ArrayList<>(pm.buildPredicates(cb, root));
+        preds.add(parentId.in(parentIds));
+        cq.multiselect(parentId, cb.count(root))
+                .where(preds.toArray(new jakarta.persistence.criteria.Predicate[0]))
+                .groupBy(parentId);
+
+        Map<Object, Long> counts = new HashMap<>();
+        for (Tuple tuple : entityManager.createQuery(cq).getResultList()) {
+            counts.put(tuple.get(0), tuple.get(1, Long.class));
+        }
+        return counts;
+    }
+
+    /**
+     * 用递归 CTE 查出给定节点及其全部祖先，返回 节点 id → 父节点 id（根节点的父节点为 null）。
+     * UNION 去重，数据中存在环时也能结束。
+     *
+     * @param parentAttribute 指向父节点的多对一属性名
+     */
+    @Transactional
+    public <T> Map<Object, Object> findAncestorPaths(Class<T> type, String parentAttribute, Collection<?> ids) {
+        if (ids == null || ids.isEmpty()) return Map.of();
+        AbstractEntityPersister persister = (AbstractEntityPersister) entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(type);
+        String table = persister.getTableName();
+        String idColumn = persister.getIdentifierColumnNames()[0];
+        String parentColumn = persister.getPropertyColumnNames(parentAttribute)[0];
+
+        String sql = "WITH RECURSIVE path(id, parent_id) AS ("
+                + " SELECT " + idColumn + ", " + parentColumn + " FROM " + table + " WHERE " + idColumn + " IN (:ids)"
+                + " UNION"
+                + " SELECT t." + idColumn + ", t." + parentColumn + " FROM " + table + " t JOIN path p ON t." + idColumn + " = p.parent_id"
+                + ") SELECT id, parent_id FROM path";
+        List<Object[]> rows = entityManager.createNativeQuery(sql)
+                .setParameter("ids", ids)
+                .getResultList();
+
+        Map<Object, Object> paths = new HashMap<>();
+        for (Object[] row : rows) {
+            paths.put(row[0], row[1]);
+        }
+        return paths;
+    }
+
     /* -------------------------------------------------- Predicate utilities -------------------------------------------------- */
     @FunctionalInterface
     public interface PredicateBuilder<T> {
         void build(CriteriaBuilder cb, Root<T> root, List<jakarta.persistence.criteria.Predicate> preds);
     }
 
+    /**
+     * 声明了“形状 + 参数”描述的谓词，用于判断查询结果能否在会话之间共享。
+     * 普通 lambda 谓词无法描述其捕获的参数，一律视为与当前用户相关。
+     */
+    public interface KeyedPredicateBuilder<T> extends PredicateBuilder<T> {
+        /**
+         * @return 稳定的缓存键；返回 null 表示该谓词与当前用户相关，结果不可共享
+         */
+        String cacheKey();
+    }
+
+    /**
+     * 为谓词附加缓存键，例如 {@code keyed("status=" + status, (cb, root, p) -> ...)}
+     */
+    public static <T> KeyedPredicateBuilder<T> keyed(String cacheKey, PredicateBuilder<T> builder) {
+        return new KeyedPredicateBuilder<>() {
+            @Override
+            public String cacheKey() {
+                return cacheKey;
+            }
+
+            @Override
+            public void build(CriteriaBuilder cb, Root<T> root, List<jakarta.persistence.criteria.Predicate> preds) {
+                builder.build(cb, root, preds);
+            }
+        };
+    }
+
 
     public static class PredicateManager<T> {
         private final Map<String, PredicateBuilder<T>> predicateBuilders = new HashMap<>();
@@ -209,6 +892,27 @@ public class GenericRepository {
             predicateBuilders.entrySet().removeIf(entry -> !keysSet.contains(entry.getKey()));
         }
 
+        // Create an independent snapshot that can be handed to background threads
+        public PredicateManager<T> copy() {
+            PredicateManager<T> copy = new PredicateManager<>();
+            copy.predicateBuilders.putAll(predicateBuilders);
+            return copy;
+        }
+
+        /**
+         * 全部谓词的缓存键（按 key 排序拼接）；任一谓词未声明缓存键时返回 null。
+         */
+        public String getCacheKey() {
+            StringBuilder sb = new StringBuilder();
+            for (String key : new TreeSet<>(predicateBuilders.keySet())) {
+                if (!(predicateBuilders.get(key) instanceof KeyedPredicateBuilder<T> keyed)) return null;
+                String cacheKey = keyed.cacheKey();
+                if (cacheKey == null) return null;
+                sb.append(key).append('=').append(cacheKey).append(';');
+            }
+            return sb.toString();
+        }
+
         // Build predicates using the CriteriaBuilder and Root
         public List<Predicate> buildPredicates(CriteriaBuilder cb, Root<T> root) {
             List<Predicate> predicates = new ArrayList<>();
@@ -18,6 +18,14 @@ public class FieldValidator {
     private static final ValidatorFactory factory = Validation.buildDefaultValidatorFactory();
     private static final Validator validator = factory.getValidator();
 
+    /**
+     * 字段上是否声明了 Bean Validation 约束；没有约束的字段无需调用 {@link #validField}
+     */
+    public static boolean isConstrained(Field field) {
+        return validator.getConstraintsForClass(field.getDeclaringClass())
+                .getConstraintsForProperty(field.getName()) != null;
+    }
+
     public static String validField(Field field, Object object,Object value) {
         Class<?> beanClass = field.getDeclaringClass();
         // 获取字段名称
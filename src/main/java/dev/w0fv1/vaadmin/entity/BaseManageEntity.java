@@ -5,4 +5,13 @@ public interface BaseManageEntity<ID> {
     ID getId();
 
     void setId(ID id);
+
+    /**
+     * 在引用字段、选择按钮等处显示的简短标签，默认为 id。
+     * <p>
+     * 不使用 getter 命名，避免被 JPA / Jackson 当作属性。
+     */
+    default String label() {
+        return String.valueOf(getId());
+    }
 }
@@ -0,0 +1,114 @@
+package dev.w0fv1.vaadmin.entity;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * 实体类的构造与字段写入句柄，每个类只解析一次（{@link ClassValue}，随类卸载回收）。
+ * <p>
+ * 用于由投影查询的结果组装未托管的临时实体：无参构造器与各字段的写入预先解析为 {@link MethodHandle}，
+ * 逐行组装时不再查找构造器/字段、调用 setAccessible 或 {@link Field#set}。
+ * <p>
+ * 实例不可变，可在任意线程共享。
+ */
+@Slf4j
+public final class EntityAccessor {
+
+    private static final ClassValue<EntityAccessor> REGISTRY = new ClassValue<>() {
+        @Override
+        protected EntityAccessor computeValue(Class<?> type) {
+            return new EntityAccessor(type);
+        }
+    };
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    /**
+     * 字段名 → 写入句柄，子类字段优先
+     */
+    private final Map<String, MethodHandle> setters;
+    private final Set<String> primitives;
+
+    public static EntityAccessor of(Class<?> type) {
+        return REGISTRY.get(type);
+    }
+
+    private EntityAccessor(Class<?> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<?> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("实体缺少可访问的无参构造器：" + type.getName(), e);
+        }
+
+        Map<String, MethodHandle> handles = new HashMap<>();
+        Set<String> primitiveNames = new HashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+                if (handles.containsKey(field.getName())) continue;
+                try {
+                    field.setAccessible(true);
+                    handles.put(field.getName(), lookup.unreflectSetter(field).asType(SETTER_TYPE));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    throw new IllegalStateException("无法访问字段：" + c.getName() + "." + field.getName(), e);
+                }
+                if (field.getType().isPrimitive()) primitiveNames.add(field.getName());
+            }
+        }
+        this.setters = Map.copyOf(handles);
+        this.primitives = Set.copyOf(primitiveNames);
+        log.debug("已解析实体访问器 {}，字段数：{}", type.getSimpleName(), setters.size());
+    }
+
+    /**
+     * 通过无参构造器创建实例（字段为构造后的默认值）
+     */
+    public Object newInstance() {
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("无法实例化实体：" + type.getName(), e);
+        }
+    }
+
+    /**
+     * 写入字段，实体没有该字段时抛出 {@link IllegalStateException}
+     */
+    public void set(Object entity, String name, Object value) {
+        MethodHandle setter = setters.get(name);
+        if (setter == null) {
+            throw new IllegalStateException("实体 " + type.getName() + " 没有字段：" + name);
+        }
+        try {
+            setter.invokeExact(entity, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("无法写入字段：" + type.getName() + "." + name, e);
+        }
+    }
+
+    /**
+     * 把这些字段置为 null（基本类型字段无法置空，保持默认值），用于清除未加载属性的构造默认值
+     */
+    public void clear(Object entity, Collection<String> names) {
+        for (String name : names) {
+            if (!primitives.contains(name)) set(entity, name, null);
+        }
+    }
+}
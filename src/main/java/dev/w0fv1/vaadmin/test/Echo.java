@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.type.SqlTypes;
@@ -24,7 +25,7 @@ import static java.util.UUID.randomUUID;
 @Setter
 @NoArgsConstructor
 @Entity
-
+@DynamicUpdate
 @Table(name = "echo")
 public class Echo implements BaseManageEntity<Long> {
     @Id
@@ -67,6 +68,10 @@ public class Echo implements BaseManageEntity<Long> {
         this.message = message;
     }
 
+    @Override
+    public String label() {
+        return id + ": " + message;
+    }
 
     public enum Label {
         NEW,
@@ -17,14 +17,15 @@ public class EchoF extends BaseEntityFormModel<Echo, Long> {
     @FormField(id = true, onlyUpdate = true, enabled = false)
     private Long id;
 
-    @FormField(enabled = false, onlyUpdate = true)
+    @UniqueField(entityType = Echo.class, bloomFilter = true, message = "UUID 已被其他 Echo 使用")
+    @FormField(title = "UUID", description = "创建时自动生成，可在更新时修改", onlyUpdate = true)
     private String uuid;
 
     @Size(min = 1, message = "消息不能为空")
     @FormField(title = "消息", description = "简短消息内容", nullable = false)
     private String message;
 
-    @FormField(title = "长消息", longText = true)
+    @FormField(title = "长消息", longText = true, heavy = true)
     private String longMessage;
 
     @FormField(title = "标记", description = "是否标记此条 Echo")
@@ -67,6 +68,7 @@ public class EchoF extends BaseEntityFormModel<Echo, Long> {
 
     @Override
     public void translate(Echo echo) {
+        if (uuid != null) echo.setUuid(uuid);
         echo.setMessage(message);
         echo.setLongMessage(longMessage);
         echo.setFlag(flag);
@@ -1,6 +1,7 @@
 package dev.w0fv1.vaadmin.test;
 
 import dev.w0fv1.vaadmin.view.table.model.BaseEntityTableModel;
+import dev.w0fv1.vaadmin.view.table.model.JsonTableField;
 import dev.w0fv1.vaadmin.view.table.model.TableConfig;
 import dev.w0fv1.vaadmin.view.table.model.TableField;
 import lombok.Data;
@@ -23,19 +24,23 @@ public class EchoT implements BaseEntityTableModel<Echo, Long> {
     @TableField(displayName = "消息", order = 3)
     private String message;
 
-    @TableField(displayName = "长消息", order = 4)
+    @TableField(displayName = "长消息", order = 4, previewLength = 25)
     private String longMessage;
 
-    @TableField(displayName = "标记", order = 5)
+    @TableField(displayName = "标记", order = 5, groupable = true)
     private Boolean flag;
 
     @TableField(displayName = "关键词", order = 6, likeSearch = true, sqlType = TableField.SqlType.JSONB)
     private List<String> keywords;
 
-    @TableField(displayName = "状态", order = 7)
+    @TableField(displayName = "首个关键词", order = 6, sortable = true, likeSearch = true)
+    @JsonTableField(source = "keywords", path = "$[0]")
+    private String firstKeyword;
+
+    @TableField(displayName = "状态", order = 7, groupable = true)
     private Echo.Status status;
 
-    @TableField(displayName = "创建时间", order = 8)
+    @TableField(displayName = "创建时间", order = 8, groupable = true)
     private OffsetDateTime createdTime;
 
     @TableField(displayName = "更新时间", order = 9)
@@ -0,0 +1,19 @@
+package dev.w0fv1.vaadmin.test;
+
+import com.vaadin.flow.router.Route;
+import dev.w0fv1.vaadmin.GenericRepository;
+import dev.w0fv1.vaadmin.view.table.BaseRepositoryTreeTablePage;
+
+/**
+ * Echo 树形（按 parent 自关联）演示页面
+ */
+@Route(value = "/sample-tree", layout = MainView.class)
+public class EchoTreeView extends BaseRepositoryTreeTablePage<EchoT, EchoF, Echo, Long> {
+
+    public EchoTreeView(GenericRepository genericRepository) {
+        super(genericRepository, EchoT.class, EchoF.class, Echo.class, "parent");
+        super.initialize();
+        setDefaultFromModel(new EchoF("默认内容"));
+    }
+
+}
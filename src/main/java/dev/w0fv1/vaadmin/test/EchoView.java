@@ -5,6 +5,10 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.router.Route;
 import dev.w0fv1.vaadmin.GenericRepository;
 import dev.w0fv1.vaadmin.view.table.BaseRepositoryTablePage;
+import dev.w0fv1.vaadmin.view.table.BulkAction;
+
+import java.time.OffsetDateTime;
+import java.util.List;
 
 /**
  * Echo (演示) 页面
@@ -22,5 +26,21 @@ public class EchoView extends BaseRepositoryTablePage<EchoT, EchoF, Echo, Long>
 
     }
 
+    @Override
+    public Boolean enableBulkActions() {
+        return true;
+    }
+
+    @Override
+    public List<BulkAction<Echo>> getBulkActions() {
+        return List.of(
+                // 批量语句不触发 @UpdateTimestamp，更新时间在语句中一并设置
+                BulkAction.update("批量隐藏", (cb, update, root) -> update
+                        .set(root.get("status"), Echo.Status.HIDDEN)
+                        .set(root.<OffsetDateTime>get("updatedTime"), OffsetDateTime.now())),
+                BulkAction.forEach("批量标记", echo -> echo.setFlag(true))
+        );
+    }
+
 }
 
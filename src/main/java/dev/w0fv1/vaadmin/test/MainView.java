@@ -26,7 +26,8 @@ public class MainView extends BaseMainView {
 
         setSideNavItems(List.of(
                 new SideNavItem("开发中", "/dev", VaadinIcon.CODE.create()),
-                new SideNavItem("演示（Echo）", "/sample", VaadinIcon.PLAY_CIRCLE.create())
+                new SideNavItem("演示（Echo）", "/sample", VaadinIcon.PLAY_CIRCLE.create()),
+                new SideNavItem("演示（Echo 树）", "/sample-tree", VaadinIcon.TREE_TABLE.create())
         ));
 
     }
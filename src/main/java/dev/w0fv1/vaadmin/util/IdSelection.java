@@ -0,0 +1,92 @@
+package dev.w0fv1.vaadmin.util;
+
+import java.util.*;
+
+/**
+ * 选中 id 的集合：Long / Integer id 存放在 {@link LongHashSet} 中（不装箱），其余类型退回 {@link LinkedHashSet}。
+ * {@link #toList()} 返回基于 long[] 的只读列表，按需装箱。非线程安全。
+ */
+public class IdSelection<ID> {
+
+    private final Class<?> idType;
+    private final LongHashSet longs;
+    private final Set<ID> others;
+
+    public IdSelection(Class<?> idType) {
+        this.idType = idType;
+        boolean numeric = isCompact(idType);
+        this.longs = numeric ? new LongHashSet() : null;
+        this.others = numeric ? null : new LinkedHashSet<>();
+    }
+
+    public static boolean isCompact(Class<?> idType) {
+        return idType == Long.class || idType == long.class || idType == Integer.class || idType == int.class;
+    }
+
+    public boolean add(ID id) {
+        if (id == null) return false;
+        return longs != null ? longs.add(((Number) id).longValue()) : others.add(id);
+    }
+
+    public void addAll(Collection<ID> ids) {
+        if (ids != null) ids.forEach(this::add);
+    }
+
+    public boolean remove(ID id) {
+        if (id == null) return false;
+        return longs != null ? longs.remove(((Number) id).longValue()) : others.remove(id);
+    }
+
+    public boolean contains(Object id) {
+        if (id == null) return false;
+        return longs != null ? id instanceof Number n && longs.contains(n.longValue()) : others.contains(id);
+    }
+
+    public int size() {
+        return longs != null ? longs.size() : others.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        if (longs != null) longs.clear();
+        else others.clear();
+    }
+
+    /**
+     * 任取一个（单选模式使用），为空时返回 null
+     */
+    public ID first() {
+        if (isEmpty()) return null;
+        if (others != null) return others.iterator().next();
+        return box(longs.toArray()[0]);
+    }
+
+    /**
+     * 当前选择的只读快照
+     */
+    public List<ID> toList() {
+        if (others != null) return List.copyOf(others);
+        long[] values = longs.toArray();
+        return new AbstractList<>() {
+            @Override
+            public ID get(int index) {
+                return box(values[index]);
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private ID box(long value) {
+        // 分开返回：条件表达式中 Integer / Long 会按数值提升为 long
+        if (idType == Integer.class || idType == int.class) return (ID) Integer.valueOf((int) value);
+        return (ID) Long.valueOf(value);
+    }
+}
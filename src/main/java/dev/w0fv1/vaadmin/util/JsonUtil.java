@@ -2,6 +2,7 @@ package dev.w0fv1.vaadmin.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
@@ -74,6 +75,17 @@ public class JsonUtil {
         }
     }
 
+    /**
+     * 转换为 JsonNode：字符串按 JSON 文本解析，其余对象（Map、List 等）直接转换
+     */
+    public static JsonNode toJsonNode(Object o) {
+        try {
+            return o instanceof String json ? objectMapper.readTree(json) : objectMapper.valueToTree(o);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("JSON 解析失败", e);
+        }
+    }
+
     public static String toJsonString(Object o) {
         String json = "";
 
@@ -0,0 +1,154 @@
+package dev.w0fv1.vaadmin.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * long 的开放寻址哈希集合（线性探测），不装箱：每个元素约 8~16 字节，而 {@code HashSet<Long>} 约 50 字节以上。
+ * <p>
+ * 0 作为空槽标记，元素 0 单独记录；删除时回移后续元素，不留墓碑。非线程安全。
+ */
+public class LongHashSet {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] table;
+    private int size;
+    private boolean containsZero;
+    private int resizeThreshold;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) return containsZero;
+        int mask = table.length - 1;
+        for (int i = hash(value) & mask; ; i = (i + 1) & mask) {
+            long current = table[i];
+            if (current == 0) return false;
+            if (current == value) return true;
+        }
+    }
+
+    /**
+     * @return 是否新加入
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int mask = table.length - 1;
+        for (int i = hash(value) & mask; ; i = (i + 1) & mask) {
+            long current = table[i];
+            if (current == value) return false;
+            if (current == 0) {
+                table[i] = value;
+                if (++size > resizeThreshold) allocate(table.length << 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return 是否存在并已删除
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int mask = table.length - 1;
+        for (int i = hash(value) & mask; ; i = (i + 1) & mask) {
+            long current = table[i];
+            if (current == 0) return false;
+            if (current == value) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        containsZero = false;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        if (containsZero) consumer.accept(0);
+        for (long value : table) {
+            if (value != 0) consumer.accept(value);
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size()];
+        int[] index = {0};
+        forEach(value -> result[index[0]++] = value);
+        return result;
+    }
+
+    /**
+     * 删除 gap 处的元素后，把同一探测链上后续的元素前移，保持查找不断链
+     */
+    private void shiftBack(int gap) {
+        int mask = table.length - 1;
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            long current = table[i];
+            if (current == 0) break;
+            int home = hash(current) & mask;
+            // home 不在 (gap, i] 区间内时，元素可以前移到 gap
+            if (gap <= i ? (home <= gap || home > i) : (home <= gap && home > i)) {
+                table[gap] = current;
+                gap = i;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private void allocate(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        size = 0;
+        if (old == null) return;
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value == 0) continue;
+            int i = hash(value) & mask;
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = value;
+            size++;
+        }
+    }
+
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashSet[size=" + size() + "]";
+    }
+}
@@ -3,6 +3,7 @@ package dev.w0fv1.vaadmin.util;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.CollectionType;
 
+import java.lang.reflect.Field;
 import java.time.OffsetDateTime;
 import java.util.*;
 
@@ -78,6 +79,23 @@ public class TypeUtil {
     }};
 
 
+    /**
+     * 本类及父类（不含 Object）声明的非合成字段，父类字段在前，同一类内保持声明顺序
+     */
+    public static List<Field> declaredFieldsWithSuperclasses(Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.push(c);
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            for (Field f : c.getDeclaredFields()) {
+                if (!f.isSynthetic()) fields.add(f);
+            }
+        }
+        return fields;
+    }
+
     public static Boolean isBaseType(Class<?> clazz) {
         if (clazz.isPrimitive()) {
             return true;
@@ -22,10 +22,15 @@ public class EntitySelectButton<
         E extends BaseManageEntity<ID>,
         ID> extends Button {
 
+    private static final int PREVIEW_IDS = 5;
+
     private Dialog dialog;
     private String title;
     private EntitySelectPage<E, ID> selectPage;
-    private List<ID> selectedItems = new ArrayList<>();
+    /**
+     * 当前选择（只读，可能是 {@link LazyIdList}），变化时整体替换而不复制
+     */
+    private List<ID> selectedItems = List.of();
 
     private Class<E> entityType;
     private Boolean singleSelectMode;
@@ -33,6 +38,15 @@ public class EntitySelectButton<
     @Setter
     private Consumer<List<ID>> onValueChangeListener; // 监听器
 
+    /**
+     * 选择页的配置，第一次打开时才用于创建页面
+     */
+    private GenericRepository genericRepository;
+    private GenericRepository.PredicateBuilder<E> presetPredicate;
+    private List<CustomFilter<E>> extraFilters;
+    private boolean focusOnlyMode = false;
+    private boolean clickListenerRegistered = false;
+
     /**
      * 浏览模式（true=只浏览，禁止选择，返回空列表）
      */
@@ -116,12 +130,40 @@ public class EntitySelectButton<
     }
     /* -------------------- 配置仓库/页面 -------------------- */
 
+    /**
+     * 配置数据源。选择页及其对话框在第一次点击时才创建和查询，未打开的按钮不产生任何查询。
+     */
     public void setGenericRepository(
             GenericRepository genericRepository,
             GenericRepository.PredicateBuilder<E> predicateBuilder,
             List<CustomFilter<E>> extraFilters,
             Boolean focusOnlyMode
     ) {
+        this.genericRepository = genericRepository;
+        this.presetPredicate = predicateBuilder;
+        this.extraFilters = extraFilters;
+        this.focusOnlyMode = focusOnlyMode != null && focusOnlyMode;
+
+        // 配置变化后，已创建的页面作废，下次打开时重建
+        if (dialog != null) {
+            dialog.close();
+            dialog = null;
+            selectPage = null;
+        }
+
+        if (clickListenerRegistered) return;
+        clickListenerRegistered = true;
+        this.addClickListener(event -> {
+            if (!isEnabled() || this.genericRepository == null) return;
+            ensureSelectPage();
+            // 浏览模式下 setSelectedData 会被页面忽略；保留调用以保持一致性
+            selectPage.setSelectedData(selectedItems);
+            dialog.open();
+        });
+    }
+
+    private void ensureSelectPage() {
+        if (selectPage != null) return;
         this.dialog = new Dialog();
 
         EntitySelectPage.OnFinish<ID> onFinishCallback = selectedData -> {
@@ -129,18 +171,12 @@ public class EntitySelectButton<
                 dialog.close();
                 return;
             }
-            if (!selectedData.isEmpty()) {
-                selectedItems.clear();
-                selectedItems.addAll(new ArrayList<>(selectedData));
-                setText("ID为" + selectedItems + "的" + selectedData.size() + "条数据(点击重选)");
-            } else {
-                selectedItems.clear();
-                setText(title);
-            }
+            selectedItems = selectedData;
+            updateText(selectedData);
 
             // 通知监听器
             if (onValueChangeListener != null) {
-                onValueChangeListener.accept(new ArrayList<>(selectedItems));
+                onValueChangeListener.accept(selectedItems);
             }
 
             dialog.close();
@@ -153,22 +189,16 @@ public class EntitySelectButton<
                 onFinishCallback,
                 this.singleSelectMode != null && this.singleSelectMode,
 
-                focusOnlyMode != null && focusOnlyMode,
+                focusOnlyMode,
                 this.browseMode,
                 extraFilters
         );
 
         dialog.add(selectPage);
 
-        this.addClickListener(event -> {
-            if (!isEnabled()) return;
-            // 浏览模式下 setSelectedData 会被页面忽略；保留调用以保持一致性
-            selectPage.setSelectedData(selectedItems);
-            dialog.open();
-        });
-
-        selectPage.addPermanentFilter("preset", predicateBuilder);
+        selectPage.addPermanentFilter("preset", presetPredicate);
         selectPage.initialize();
+        log.debug("已创建 {} 选择页", entityType.getSimpleName());
     }
 
     /* -------------------- 公开方法 -------------------- */
@@ -188,13 +218,13 @@ public class EntitySelectButton<
     }
 
     public void clear() {
-        selectedItems.clear();
+        selectedItems = List.of();
         setText(title);
         if (selectPage != null) {
             selectPage.clear();
         }
         if (onValueChangeListener != null) {
-            onValueChangeListener.accept(new ArrayList<>(selectedItems));
+            onValueChangeListener.accept(selectedItems);
         }
     }
 
@@ -217,19 +247,53 @@ public class EntitySelectButton<
             return;
         }
 
-        this.selectedItems.clear();
-        this.selectedItems.addAll(selectedItems);
+        this.selectedItems = selectedItems;
 
         if (selectPage != null) {
             selectPage.setSelectedData(selectedItems);
         }
 
-        String text = "ID为" + selectedItems + "的" + selectedItems.size() + "条数据(点击重选)";
-        setText(text);
+        updateText(selectedItems);
 
         // 主动通知监听器
         if (onValueChangeListener != null) {
-            onValueChangeListener.accept(new ArrayList<>(this.selectedItems));
+            onValueChangeListener.accept(this.selectedItems);
+        }
+    }
+
+    /**
+     * 先显示 id，随后用 {@link LabelResolver} 批量解析出的标签替换（同一次渲染中的多个按钮合并查询）
+     */
+    private void updateText(List<ID> ids) {
+        if (ids.isEmpty()) {
+            setText(title);
+            return;
+        }
+        setText(describe(ids));
+        if (genericRepository == null || (ids instanceof LazyIdList<?, ?> lazy && !lazy.isMaterialized())) return;
+
+        List<ID> preview = ids.size() <= PREVIEW_IDS ? ids : ids.subList(0, PREVIEW_IDS);
+        LabelResolver.current(genericRepository).requestAll(entityType, preview, labels -> {
+            if (selectedItems != ids) return; // 解析期间选择已变化
+            List<String> shown = new ArrayList<>(labels.size());
+            for (int i = 0; i < labels.size(); i++) {
+                shown.add(labels.get(i) == null ? String.valueOf(preview.get(i)) : labels.get(i));
+            }
+            String more = ids.size() > PREVIEW_IDS ? " 等" : "";
+            setText(String.join("、", shown) + more + " 共" + ids.size() + "条(点击重选)");
+        });
+    }
+
+    /**
+     * 按钮文字：最多列出前 {@link #PREVIEW_IDS} 个 id；未物化的“全部匹配”只显示数量
+     */
+    private static String describe(List<?> ids) {
+        if (ids instanceof LazyIdList<?, ?> lazy && !lazy.isMaterialized()) {
+            return "全部匹配的" + lazy.size() + "条数据(点击重选)";
         }
+        String preview = ids.size() <= PREVIEW_IDS
+                ? ids.toString()
+                : ids.subList(0, PREVIEW_IDS).toString().replaceFirst("]$", ", …]");
+        return "ID为" + preview + "的" + ids.size() + "条数据(点击重选)";
     }
 }
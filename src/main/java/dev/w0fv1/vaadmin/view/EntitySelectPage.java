@@ -12,20 +12,21 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.NumberField;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.SortDirection;
 import dev.w0fv1.vaadmin.GenericRepository;
-import dev.w0fv1.vaadmin.view.table.model.TableField;
+import dev.w0fv1.vaadmin.view.table.model.TableModelMetadata;
 import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+import dev.w0fv1.vaadmin.util.IdSelection;
 import lombok.extern.slf4j.Slf4j;
-import org.reflections.ReflectionUtils;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static dev.w0fv1.vaadmin.util.TypeUtil.isBaseType;
 import static dev.w0fv1.vaadmin.view.tools.Notifier.showNotification;
-import static org.reflections.ReflectionUtils.getAllFields;
 
 @Slf4j
 public class EntitySelectPage<
@@ -46,8 +47,32 @@ public class EntitySelectPage<
     private final Grid<E> grid;
     private Grid.Column<E> selectColumn;
 
+    /**
+     * 最近一次加载的行（用于回显选择状态）
+     */
     private final List<E> data = new ArrayList<>();
 
+    /**
+     * 懒加载数据源；只投影显示的基础类型列，行是未托管的临时实体（见 {@link GenericRepository#getProjectedRows}），只用于显示与取 id。
+     * 显示的列都来自数据库，未投影的属性为 null，不会出现构造器默认值或懒加载代理
+     */
+    private final CallbackDataProvider<E, Void> dataProvider;
+    private final List<TableModelMetadata.Column> columns;
+    private final GenericRepository.Projection projection;
+
+    /**
+     * 总数按筛选条件版本缓存：筛选变化时版本加一，同一版本内只统计一次
+     */
+    private long filterVersion = 0;
+    private long countedVersion = -1;
+    private long cachedCount = 0;
+
+    /**
+     * 无限滚动：不分页，整个结果集由 Grid 按需加载
+     */
+    private boolean infiniteScroll = false;
+    private HorizontalLayout paginationLayout;
+
     private final Boolean focusMode;
     private final boolean singleSelectMode;
     private boolean browseMode = false;
@@ -72,7 +97,20 @@ public class EntitySelectPage<
 
     private final GenericRepository.PredicateManager<E> predicateManager = new GenericRepository.PredicateManager<>();
 
-    private final Set<ID> selectedItems = new HashSet<>();
+    /**
+     * 已选 id（跨页保持）；Long / Integer id 不装箱存放
+     */
+    private final IdSelection<ID> selectedItems;
+
+    /**
+     * “全部匹配”模式（仅多选）：选择 = 进入该模式时的谓词快照 − excludedItems，确认时返回 {@link LazyIdList}，不查询 id
+     */
+    private boolean allMatching = false;
+    private GenericRepository.PredicateManager<E> matchingPredicates;
+    private long matchingCount;
+    private IdSelection<ID> excludedItems;
+    private final Span selectionStatus = new Span();
+    private final Button selectAllMatchingButton = new Button("选择全部匹配");
 
     private final Set<String> permanentPredicateKeys = new HashSet<>();
     private final List<CustomFilter<E>> customFilters = new ArrayList<>();
@@ -122,6 +160,10 @@ public class EntitySelectPage<
         if (initPredicate != null) predicateManager.putPredicate("init", initPredicate);
 
         this.grid = new Grid<>(entityClass, false);
+        this.selectedItems = new IdSelection<>(resolveIdFieldType());
+        this.columns = TableModelMetadata.of(entityClass).getBaseTypeColumns();
+        this.projection = buildProjection();
+        this.dataProvider = new CallbackDataProvider<>(this::fetch, this::countRows, E::getId);
         configureTitle();
         configureSearchFields();
         configureActionButtons();
@@ -129,7 +171,8 @@ public class EntitySelectPage<
         configureSelectionModel();
 
         configurePaginationComponent();
-        add(grid, createPaginationLayout(), createActionButtonLayout());
+        paginationLayout = createPaginationLayout();
+        add(grid, paginationLayout, createActionButtonLayout());
 
         if (focusMode || initPredicate != null) applyFilters();
 
@@ -156,6 +199,7 @@ public class EntitySelectPage<
             // 禁用选择
             grid.deselectAll();
             selectedItems.clear();
+            exitAllMatching();
             grid.setSelectionMode(Grid.SelectionMode.NONE);
             pushViewData();
         } else {
@@ -203,9 +247,12 @@ public class EntitySelectPage<
             if (singleSelectMode) {
                 E sel = grid.asSingleSelect().getValue();
                 onFinish.onFinish(sel != null ? List.of(sel.getId()) : Collections.emptyList());
+            } else if (allMatching) {
+                // 不在此处查询 id，由使用方（通常是表单保存）按需物化
+                onFinish.onFinish(new LazyIdList<>(genericRepository, entityClass, matchingPredicates, excludedItems, matchingCount));
             } else {
                 // 用全局 selectedItems，避免分页丢失
-                onFinish.onFinish(new ArrayList<>(selectedItems));
+                onFinish.onFinish(selectedItems.toList());
             }
         });
 
@@ -216,6 +263,13 @@ public class EntitySelectPage<
 
     private HorizontalLayout createActionButtonLayout() {
         HorizontalLayout layout = new HorizontalLayout(finishButton, cancelButton);
+        if (!singleSelectMode) {
+            selectAllMatchingButton.addClickListener(e -> enterAllMatching());
+            layout.addComponentAsFirst(selectAllMatchingButton);
+            layout.addComponentAsFirst(selectionStatus);
+            updateSelectionStatus();
+        }
+        layout.setAlignItems(Alignment.CENTER);
         layout.setJustifyContentMode(JustifyContentMode.END);
         layout.setWidthFull();
         return layout;
@@ -227,28 +281,90 @@ public class EntitySelectPage<
         grid.addClassName("entity-select-grid");
         grid.setColumnReorderingAllowed(true);
 
-        List<Field> fieldList = new ArrayList<>(getAllFields(entityClass));
-        fieldList.sort(Comparator.comparingInt(field -> {
-            TableField annotation = field.getAnnotation(TableField.class);
-            return annotation != null ? annotation.order() : 100;
-        }));
-
-        for (Field field : fieldList) {
-            // 跳过 static 字段
-            if (Modifier.isStatic(field.getModifiers())) continue;
-            if (!isBaseType(field.getType())) continue;
-
-            field.setAccessible(true);
-            TableField tableFieldInfo = field.getAnnotation(TableField.class);
-            String displayName = (tableFieldInfo != null && !tableFieldInfo.displayName().isEmpty())
-                    ? tableFieldInfo.displayName()
-                    : field.getName();
-
-            grid.addColumn(data -> getFieldStringValue(data, field))
-                    .setHeader(displayName)
+        // 非 static 的基础类型字段，按 order 排序（元数据按类缓存），在数据库侧排序
+        for (TableModelMetadata.Column column : columns) {
+            grid.addColumn(data -> getFieldStringValue(data, column))
+                    .setHeader(column.header())
+                    .setKey(column.field().getName())
+                    .setSortProperty(column.field().getName())
                     .setAutoWidth(true)
                     .setSortable(true);
         }
+        grid.setItems(dataProvider);
+    }
+
+    /**
+     * 只加载显示的列（及 id），其余属性（含关联）不查询，在行上为 null
+     */
+    private GenericRepository.Projection buildProjection() {
+        Set<String> displayed = columns.stream().map(c -> c.field().getName()).collect(Collectors.toSet());
+        displayed.add("id");
+        Set<String> omitted = new HashSet<>();
+        for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (!displayed.contains(f.getName())) omitted.add(f.getName());
+            }
+        }
+        return new GenericRepository.Projection(Map.of(), Map.of(), omitted);
+    }
+
+    /**
+     * 开启无限滚动（隐藏分页按钮），需在 {@link #initialize()} 之前或之后调用均可
+     */
+    public void setInfiniteScroll(boolean infiniteScroll) {
+        this.infiniteScroll = infiniteScroll;
+        if (paginationLayout != null) paginationLayout.setVisible(!infiniteScroll);
+        if (infiniteScroll) grid.setHeight("60vh");
+        dataProvider.refreshAll();
+    }
+
+    private Stream<E> fetch(Query<E, Void> query) {
+        // 分页模式下，Grid 的偏移量是页内偏移
+        int offset = infiniteScroll ? query.getOffset() : page * pageSize + query.getOffset();
+        int limit = infiniteScroll ? query.getLimit() : Math.min(query.getLimit(), pageSize - query.getOffset());
+        if (limit <= 0) return Stream.empty();
+
+        List<GenericRepository.SortOrder> sortOrders = query.getSortOrders().isEmpty()
+                ? List.of(new GenericRepository.SortOrder("id", GenericRepository.SortOrder.Direction.ASC))
+                : query.getSortOrders().stream()
+                .map(o -> new GenericRepository.SortOrder(o.getSorted(),
+                        o.getDirection() == SortDirection.DESCENDING ? GenericRepository.SortOrder.Direction.DESC : GenericRepository.SortOrder.Direction.ASC))
+                .toList();
+
+        List<E> rows = genericRepository.execute(status -> {
+            try {
+                return genericRepository.getProjectedRows(entityClass, offset, limit, predicateManager, sortOrders, projection).stream()
+                        .map(GenericRepository.PreviewRow::entity)
+                        .collect(Collectors.toList());
+            } catch (Exception e) {
+                log.error("数据加载失败", e);
+                status.setRollbackOnly();
+                throw new RuntimeException("数据加载失败", e);
+            }
+        });
+
+        if (query.getOffset() == 0) data.clear();
+        data.addAll(rows);
+        // 行发送到客户端前回显选择状态
+        getUI().ifPresent(ui -> ui.beforeClientResponse(grid, ctx -> applySelectionTo(rows)));
+        return rows.stream();
+    }
+
+    private int countRows(Query<E, Void> query) {
+        long total = getTotalCount();
+        if (infiniteScroll) return (int) Math.min(total, Integer.MAX_VALUE);
+        return (int) Math.max(0, Math.min(pageSize, total - (long) page * pageSize));
+    }
+
+    /**
+     * 当前筛选条件下的总数，同一筛选版本只查询一次
+     */
+    private long getTotalCount() {
+        if (countedVersion != filterVersion) {
+            cachedCount = genericRepository.getTotalSize(entityClass, predicateManager);
+            countedVersion = filterVersion;
+        }
+        return cachedCount;
     }
 
     private void configureSelectionModel() {
@@ -270,17 +386,23 @@ public class EntitySelectPage<
                 Set<E> oldSelection = e.getOldValue() != null ? e.getOldValue() : Collections.emptySet();
                 Set<E> newSelection = e.getValue() != null ? e.getValue() : Collections.emptySet();
 
-                // 计算新增
+                // 计算新增（全部匹配模式下为取消排除）
                 newSelection.stream()
                         .filter(v -> !oldSelection.contains(v))
-                        .forEach(v -> selectedItems.add(v.getId()));
+                        .forEach(v -> {
+                            if (allMatching) excludedItems.remove(v.getId());
+                            else selectedItems.add(v.getId());
+                        });
 
-                // 计算移除
+                // 计算移除（全部匹配模式下为排除）
                 oldSelection.stream()
                         .filter(v -> !newSelection.contains(v))
-                        .forEach(v -> selectedItems.remove(v.getId()));
+                        .forEach(v -> {
+                            if (allMatching) excludedItems.add(v.getId());
+                            else selectedItems.remove(v.getId());
+                        });
 
-                showNotification("已选择：" + selectedItems);
+                updateSelectionStatus();
             });
         }
     }
@@ -318,38 +440,14 @@ public class EntitySelectPage<
 
     public void initialize() {
         loadData();
-        pushViewData();
     }
 
+    /**
+     * 重新加载当前页（总数沿用当前筛选版本的缓存）
+     */
     public void loadData() {
-        List<E> fetchedData = genericRepository.execute(status -> {
-            List<E> list = new ArrayList<>();
-            try {
-                // 按 id 升序
-                List<GenericRepository.SortOrder> sortOrders = List.of(
-                        new GenericRepository.SortOrder("id", GenericRepository.SortOrder.Direction.ASC)
-                );
-
-                List<E> entities = genericRepository.getPage(entityClass, page, pageSize, predicateManager, sortOrders);
-                list.addAll(entities);
-            } catch (Exception e) {
-                log.error("数据加载失败", e);
-                status.setRollbackOnly();
-                throw new RuntimeException("数据加载失败", e);
-            }
-            return list;
-        });
-
-        if (fetchedData != null) {
-            setData(fetchedData);
-            pushViewData();
-        }
-    }
-
-
-    public void setData(List<E> data) {
-        this.data.clear();
-        if (data != null) this.data.addAll(data);
+        dataProvider.refreshAll();
+        updatePageInfo();
     }
 
     /**
@@ -357,42 +455,89 @@ public class EntitySelectPage<
      */
     public void setSelectedData(List<ID> data) {
         selectedItems.clear();
-        if (data != null && !data.isEmpty()) {
+        exitAllMatching();
+        if (data instanceof LazyIdList<?, ?> lazy && !lazy.isMaterialized() && !singleSelectMode) {
+            // 恢复未物化的“全部匹配”选择
+            restoreAllMatching((LazyIdList<E, ID>) lazy);
+        } else if (data != null && !data.isEmpty()) {
             if (singleSelectMode) selectedItems.add(data.getFirst());
             else selectedItems.addAll(data);
         }
-        // 仅对“当前页”做回显；其他页由 selectedItems 统一托管
+        updateSelectionStatus();
+        // 仅对已加载的行做回显；其余行在加载时回显，选择统一由 selectedItems 托管
         applySelectionToGrid();
     }
 
     private void applySelectionToGrid() {
         if (browseMode) return;
+        // 单选模式下取消选择会触发监听器清空 selectedItems，先保存
+        ID singleTarget = singleSelectMode ? selectedItems.first() : null;
+        grid.deselectAll();
+        if (singleTarget != null) selectedItems.add(singleTarget);
+        applySelectionTo(this.data);
+    }
+
+    private void applySelectionTo(List<E> rows) {
+        if (browseMode || (selectedItems.isEmpty() && !allMatching)) return;
         if (singleSelectMode) {
-            grid.deselectAll();
-            if (!selectedItems.isEmpty()) {
-                ID target = selectedItems.iterator().next();
-                // 仅在当前页数据中进行回显
-                this.data.stream()
-                        .filter(e -> Objects.equals(e.getId(), target))
-                        .findFirst()
-                        .ifPresent(e -> grid.asSingleSelect().setValue(e));
-            }
+            ID target = selectedItems.first();
+            E current = grid.asSingleSelect().getValue();
+            if (current != null && Objects.equals(current.getId(), target)) return;
+            rows.stream()
+                    .filter(e -> Objects.equals(e.getId(), target))
+                    .findFirst()
+                    .ifPresent(e -> grid.asSingleSelect().setValue(e));
         } else {
-            grid.deselectAll();
-            if (!selectedItems.isEmpty()) {
-                this.data.stream()
-                        .filter(e -> selectedItems.contains(e.getId()))
-                        .forEach(grid::select);
-            }
+            Set<E> current = grid.asMultiSelect().getValue();
+            rows.stream()
+                    .filter(e -> (allMatching ? !excludedItems.contains(e.getId()) : selectedItems.contains(e.getId()))
+                            && !current.contains(e))
+                    .forEach(grid::select);
         }
     }
 
+    /**
+     * 选择当前筛选条件下的全部数据：只记录谓词快照与数量，之后取消勾选的行记为排除项
+     */
+    private void enterAllMatching() {
+        if (browseMode) return;
+        allMatching = true;
+        matchingPredicates = predicateManager.copy();
+        matchingCount = getTotalCount();
+        excludedItems = new IdSelection<>(resolveIdFieldType());
+        selectedItems.clear();
+        updateSelectionStatus();
+        dataProvider.refreshAll(); // 重新加载时回显勾选
+    }
+
+    private void restoreAllMatching(LazyIdList<E, ID> lazy) {
+        allMatching = true;
+        matchingPredicates = lazy.getPredicates();
+        matchingCount = lazy.getMatchingCount();
+        excludedItems = lazy.getExcluded();
+    }
+
+    private void exitAllMatching() {
+        if (!allMatching) return;
+        allMatching = false;
+        matchingPredicates = null;
+        excludedItems = null;
+        updateSelectionStatus();
+    }
+
+    private void updateSelectionStatus() {
+        if (singleSelectMode) return;
+        long count = allMatching ? Math.max(0, matchingCount - excludedItems.size()) : selectedItems.size();
+        selectionStatus.setText(allMatching ? "已选择全部匹配的 " + count + " 条" : "已选择 " + count + " 条");
+        selectAllMatchingButton.setEnabled(!allMatching);
+    }
+
     public void pushViewData() {
-        grid.setItems(this.data);
-        applySelectionToGrid();
+        dataProvider.refreshAll();
     }
 
     public void refresh() {
+        filterVersion++; // 重新统计总数
         loadData();      /* 避免二次 jumpPage(0) */
     }
 
@@ -412,18 +557,10 @@ public class EntitySelectPage<
 
     private void jumpPage(int targetPage) {
         int totalPages = getTotalPages();
-        if (totalPages == 0) {
-            this.page = 0;
-            setData(Collections.emptyList());
-            pushViewData();
-            updatePageInfo();
-            return;
-        }
-        if (targetPage < 0) targetPage = 0;
         if (targetPage >= totalPages) targetPage = totalPages - 1;
+        if (targetPage < 0) targetPage = 0;
         this.page = targetPage;
         loadData();
-        updatePageInfo();
     }
 
     private void resetFilters() {
@@ -435,7 +572,10 @@ public class EntitySelectPage<
                 Stream.concat(Stream.of("init"), permanentPredicateKeys.stream()).toArray(String[]::new)
         );
         selectedItems.clear();
+        exitAllMatching();
+        updateSelectionStatus();
         if (focusMode) customFilters.forEach(f -> f.apply(predicateManager));
+        filterVersion++;
         jumpPage(0);
     }
 
@@ -454,6 +594,9 @@ public class EntitySelectPage<
             }
         }
         customFilters.forEach(f -> f.apply(predicateManager));
+        // “全部匹配”针对的是旧的筛选条件
+        exitAllMatching();
+        filterVersion++;
         jumpPage(0);
     }
 
@@ -462,19 +605,18 @@ public class EntitySelectPage<
         return entityClass.getSimpleName() + "选择数据" + suffix;
     }
 
-    private String getFieldStringValue(E data, Field field) {
+    private String getFieldStringValue(E data, TableModelMetadata.Column column) {
         try {
-            Object value = field.get(data);
+            Object value = column.get(data);
             return value != null ? value.toString() : "N/A";
-        } catch (IllegalAccessException e) {
-            log.error("无法访问字段: {}", field.getName(), e);
+        } catch (IllegalStateException e) {
+            log.error("无法访问字段: {}", column.field().getName(), e);
             return "Error";
         }
     }
 
     private int getTotalPages() {
-        long totalSize = genericRepository.getTotalSize(entityClass, predicateManager);
-        return (int) Math.ceil((double) totalSize / pageSize);
+        return (int) Math.ceil((double) getTotalCount() / pageSize);
     }
 
     /* -------------------- 外部新增永久过滤器 -------------------- */
@@ -499,9 +641,12 @@ public class EntitySelectPage<
         idSearchInput.clear();
         predicateManager.clearPredicatesWithOut(Stream.concat(Stream.of("init"), permanentPredicateKeys.stream()).toArray(String[]::new));
         selectedItems.clear();
+        exitAllMatching();
+        updateSelectionStatus();
         if (singleSelectMode) grid.asSingleSelect().clear();
         else grid.deselectAll();
         pageInput.clear();
+        filterVersion++;
         jumpPage(0);
     }
 
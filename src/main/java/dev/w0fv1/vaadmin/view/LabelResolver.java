@@ -0,0 +1,152 @@
+package dev.w0fv1.vaadmin.view;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import dev.w0fv1.vaadmin.GenericRepository;
+import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 引用字段的标签解析（id → {@link BaseManageEntity#label()}），每个 UI 一个实例。
+ * <p>
+ * - 渲染期间的请求先登记，在本次响应发出前（beforeClientResponse）统一解析，每种实体类型只查询一次；<br/>
+ * - 解析结果在 UI 内缓存 {@link #TTL}，同一表单反复刷新不再查询；<br/>
+ * - 不在 UI 线程中使用时（没有当前 UI），请求立即解析。
+ * <p>
+ * 实例只在持有 UI 锁的线程中使用，非线程安全。
+ */
+@Slf4j
+public class LabelResolver {
+
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private record Key(Class<?> type, Object id) {
+    }
+
+    private record Cached(String label, long expiresAt) {
+    }
+
+    private final UI ui;
+    private final GenericRepository genericRepository;
+    private final Map<Key, Cached> cache = new HashMap<>();
+    private final Map<Class<? extends BaseManageEntity<?>>, Map<Object, List<Consumer<String>>>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled = false;
+
+    private LabelResolver(UI ui, GenericRepository genericRepository) {
+        this.ui = ui;
+        this.genericRepository = genericRepository;
+    }
+
+    /**
+     * 获取当前 UI 的解析器；没有当前 UI 时返回一个立即解析的临时实例
+     */
+    public static LabelResolver current(GenericRepository genericRepository) {
+        UI ui = UI.getCurrent();
+        if (ui == null) {
+            return new LabelResolver(null, genericRepository);
+        }
+        LabelResolver resolver = ComponentUtil.getData(ui, LabelResolver.class);
+        if (resolver == null || resolver.genericRepository != genericRepository) {
+            resolver = new LabelResolver(ui, genericRepository);
+            ComponentUtil.setData(ui, LabelResolver.class, resolver);
+        }
+        return resolver;
+    }
+
+    /**
+     * 请求一个标签，解析后回调；实体不存在时回调 null。缓存命中时立即回调。
+     */
+    public void request(Class<? extends BaseManageEntity<?>> type, Object id, Consumer<String> callback) {
+        if (id == null) {
+            callback.accept(null);
+            return;
+        }
+        Cached cached = cache.get(new Key(type, id));
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            callback.accept(cached.label());
+            return;
+        }
+        pending.computeIfAbsent(type, t -> new LinkedHashMap<>())
+                .computeIfAbsent(id, i -> new ArrayList<>())
+                .add(callback);
+        scheduleFlush();
+    }
+
+    /**
+     * 请求一组标签，全部解析后按输入顺序回调（不存在的实体对应 null）
+     */
+    public void requestAll(Class<? extends BaseManageEntity<?>> type, List<?> ids, Consumer<List<String>> callback) {
+        if (ids.isEmpty()) {
+            callback.accept(List.of());
+            return;
+        }
+        String[] labels = new String[ids.size()];
+        int[] remaining = {ids.size()};
+        for (int i = 0; i < ids.size(); i++) {
+            int index = i;
+            request(type, ids.get(i), label -> {
+                labels[index] = label;
+                if (--remaining[0] == 0) {
+                    callback.accept(Arrays.asList(labels));
+                }
+            });
+        }
+    }
+
+    /**
+     * 写入已知的标签（例如刚保存的实体），避免再次查询
+     */
+    public void put(Class<? extends BaseManageEntity<?>> type, Object id, String label) {
+        cache.put(new Key(type, id), new Cached(label, System.currentTimeMillis() + TTL.toMillis()));
+    }
+
+    public void invalidate(Class<? extends BaseManageEntity<?>> type, Object id) {
+        cache.remove(new Key(type, id));
+    }
+
+    private void scheduleFlush() {
+        if (ui == null) {
+            flush();
+            return;
+        }
+        if (flushScheduled) return;
+        flushScheduled = true;
+        ui.beforeClientResponse(ui, context -> flush());
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        if (pending.isEmpty()) return;
+        Map<Class<? extends BaseManageEntity<?>>, Map<Object, List<Consumer<String>>>> batch = new LinkedHashMap<>(pending);
+        pending.clear();
+
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.expiresAt() <= now);
+
+        batch.forEach((type, callbacks) -> {
+            List<Object> ids = new ArrayList<>(callbacks.keySet());
+            Map<Object, String> labels = genericRepository.execute((TransactionCallback<Map<Object, String>>) status -> {
+                Map<Object, String> result = new HashMap<>();
+                for (BaseManageEntity<?> entity : genericRepository.findAll(ids, type)) {
+                    result.put(entity.getId(), entity.label());
+                }
+                return result;
+            });
+            log.debug("批量解析标签 {}：请求 {} 个，命中 {} 个", type.getSimpleName(), ids.size(), labels.size());
+
+            long expiresAt = now + TTL.toMillis();
+            callbacks.forEach((id, consumers) -> {
+                String label = labels.get(id);
+                if (label != null) {
+                    cache.put(new Key(type, id), new Cached(label, expiresAt));
+                }
+                consumers.forEach(consumer -> consumer.accept(label));
+            });
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package dev.w0fv1.vaadmin.view;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+import dev.w0fv1.vaadmin.util.IdSelection;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * “全部匹配”的选择结果：只保存谓词快照、排除项与数量，第一次读取元素时（通常是表单保存时）
+ * 才按 id 键集分块查询出全部 id。{@link #size()} / {@link #isEmpty()} 不触发查询。
+ * <p>
+ * 只读；物化结果为查询当时匹配的数据，可能与选择时的数量不同。
+ */
+@Slf4j
+public class LazyIdList<E extends BaseManageEntity<ID>, ID> extends AbstractList<ID> {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final GenericRepository genericRepository;
+    @Getter
+    private final Class<E> entityClass;
+    @Getter
+    private final GenericRepository.PredicateManager<E> predicates;
+    @Getter
+    private final IdSelection<ID> excluded;
+    private final long matchingCount;
+
+    private List<ID> materialized;
+
+    /**
+     * @param predicates    选择时的谓词快照（调用方不再修改）
+     * @param excluded      从全部匹配中取消勾选的 id
+     * @param matchingCount 选择时的匹配数量
+     */
+    public LazyIdList(GenericRepository genericRepository, Class<E> entityClass,
+                      GenericRepository.PredicateManager<E> predicates, IdSelection<ID> excluded, long matchingCount) {
+        this.genericRepository = genericRepository;
+        this.entityClass = entityClass;
+        this.predicates = predicates;
+        this.excluded = excluded;
+        this.matchingCount = matchingCount;
+    }
+
+    public boolean isMaterialized() {
+        return materialized != null;
+    }
+
+    public long getMatchingCount() {
+        return matchingCount;
+    }
+
+    @Override
+    public ID get(int index) {
+        return materialize().get(index);
+    }
+
+    @Override
+    public int size() {
+        return materialized != null
+                ? materialized.size()
+                : (int) Math.max(0, Math.min(Integer.MAX_VALUE, matchingCount - excluded.size()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized List<ID> materialize() {
+        if (materialized != null) return materialized;
+        List<ID> ids = new ArrayList<>(size());
+        Object afterId = null;
+        while (true) {
+            Object after = afterId;
+            List<Object> chunk = genericRepository.execute((TransactionCallback<List<Object>>) status ->
+                    genericRepository.getIdsAfter(entityClass, predicates, after, CHUNK_SIZE));
+            for (Object id : chunk) {
+                if (!excluded.contains(id)) ids.add((ID) id);
+            }
+            if (chunk.size() < CHUNK_SIZE) break;
+            afterId = chunk.getLast();
+        }
+        log.debug("物化 {} 全部匹配的选择：{} 条", entityClass.getSimpleName(), ids.size());
+        materialized = ids;
+        return materialized;
+    }
+
+    @Override
+    public String toString() {
+        return materialized != null ? super.toString() : "全部匹配的 " + size() + " 条";
+    }
+}
@@ -1,6 +1,7 @@
 package dev.w0fv1.vaadmin.view.form;
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.html.Div;
@@ -12,23 +13,22 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import dev.w0fv1.vaadmin.view.form.model.*;
 import dev.w0fv1.vaadmin.view.form.component.*;
 import lombok.extern.slf4j.Slf4j;
-import org.reflections.ReflectionUtils;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.math.BigDecimal;
-import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.function.Predicate;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static dev.w0fv1.vaadmin.view.tools.Notifier.showNotification;
-import static org.reflections.ReflectionUtils.getAllFields;
 
 
 @Slf4j
 public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
     private final Class<F> fromClass;
     private final FormConfig formConfig;
+    private final FormSchema schema;
 
     private F model;
 
@@ -36,6 +36,11 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
 
     private final Boolean isUpdate;
 
+    /**
+     * 组件树是否已构建，构建后 {@link #setDefaultModel} 只重新绑定数据
+     */
+    private boolean initialized = false;
+
     private final List<BaseFormFieldComponent<?>> fieldComponents = new ArrayList<>();
     // 新增：用于快速通过字段名查找 BaseFormFieldComponent 实例的映射
     private final Map<String, BaseFormFieldComponent<?>> fieldNameToComponentMap = new HashMap<>();
@@ -48,11 +53,12 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
         if (!fromClass.isAnnotationPresent(FormConfig.class)) {
             throw new IllegalStateException("表单class未集成@FromConfig.class");
         }
-        this.formConfig = fromClass.getAnnotation(FormConfig.class);
+        this.schema = FormSchema.of(fromClass);
+        this.formConfig = schema.getFormConfig();
 
         this.isUpdate = isUpdate;
         this.defaultModel = fromModel;
-        this.model = defaultModel.copy();
+        this.model = defaultModel.copy(true);
         this.setPadding(false);
     }
 
@@ -61,6 +67,7 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
         initDataForm();
         initAction();
         evaluateAllConditionalField();
+        initialized = true;
     }
 
 
@@ -83,10 +90,14 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
         }
 
         fieldComponents.clear();
+        fieldNameToComponentMap.clear();
+        pendingVisibility.clear();
+        initialized = false;
     }
 
     private void evaluateAllConditionalField() {
         log.debug("开始对所有字段进行初始可见性评估。");
+        pendingVisibility.clear();
         for (BaseFormFieldComponent<?> fieldComponent : fieldComponents) {
             // 传递 null 给 changedField，表示这是一次全局的（非某个特定字段变更引起的）评估
             fieldComponent.applyFormVisibilityCondition(null, this.model);
@@ -133,22 +144,11 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
 
     private void save() {
 
-        List<Boolean> validResults = new ArrayList<>();
-
-        for (BaseFormFieldComponent<?> fieldComponent : fieldComponents) {
-            fieldComponent.clearValid();
-        }
-
-        for (BaseFormFieldComponent<?> fieldComponent : fieldComponents) {
-            Boolean valid = fieldComponent.valid();
-            validResults.add(valid);
-        }
-        log.debug("validResults: {}", Arrays.toString(validResults.toArray()));
-        for (Boolean validResult : validResults) {
-            if (!validResult) {
-                showNotification("表单字段存在错误，请按说明修正", NotificationVariant.LUMO_ERROR);
-                return;
-            }
+        List<String> invalidFields = validateAll();
+        log.debug("校验未通过的字段: {}", invalidFields);
+        if (!invalidFields.isEmpty()) {
+            showNotification("表单字段存在错误，请按说明修正：" + String.join("、", invalidFields), NotificationVariant.LUMO_ERROR);
+            return;
         }
 
         for (BaseFormFieldComponent<?> fieldComponent : fieldComponents) {
@@ -180,52 +180,70 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
 
     abstract public Boolean save(F data);
 
+    /**
+     * 校验全部字段，返回未通过的字段标题。
+     * <p>
+     * - 值自上次校验后未变化的字段直接复用上次结果；<br/>
+     * - 标注了 {@link FormField#expensiveValidation()} 的字段在虚拟线程上并行计算，结果回到当前线程后再更新UI。
+     */
+    private List<String> validateAll() {
+        Map<BaseFormFieldComponent<?>, Future<String>> expensive = new HashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (BaseFormFieldComponent<?> fieldComponent : fieldComponents) {
+                FormField formField = fieldComponent.getFormField();
+                if (formField != null && formField.expensiveValidation() && fieldComponent.needsValidation()) {
+                    expensive.put(fieldComponent, executor.submit(fieldComponent::computeValidMessage));
+                }
+            }
+
+            List<String> invalidFields = new ArrayList<>();
+            for (BaseFormFieldComponent<?> fieldComponent : fieldComponents) {
+                Future<String> pending = expensive.get(fieldComponent);
+                boolean valid = pending == null
+                        ? fieldComponent.valid()
+                        : fieldComponent.applyValidation(awaitValidation(fieldComponent, pending));
+                if (!valid) {
+                    FormField formField = fieldComponent.getFormField();
+                    invalidFields.add(formField == null || formField.title().isEmpty()
+                            ? fieldComponent.getField().getName() : formField.title());
+                }
+            }
+            return invalidFields;
+        }
+    }
+
+    private static String awaitValidation(BaseFormFieldComponent<?> fieldComponent, Future<String> pending) {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "校验被中断，请重试";
+        } catch (ExecutionException e) {
+            log.error("字段 [{}] 校验异常", fieldComponent.getField().getName(), e.getCause());
+            return "校验异常：" + e.getCause().getMessage();
+        }
+    }
+
     protected boolean beforeSave(F data) {
         return true;
     }
 
     /**
-     * 针对标记了 @TextTransform 的字段进行处理
+     * 针对标记了 @TextTransform 的字段进行处理（转换器实例由 {@link FormSchema} 预先创建）
      */
     private void handleTextTransform() {
-        Class<F> clazz = this.fromClass;
-        // 获取所有字段
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            if (!field.isAnnotationPresent(TextTransform.class)) {
-                continue;
-            }
-            if (!field.getType().equals(String.class)) {
-                // 如果不是String类型，你也可以选择跳过或者抛异常
-                continue;
-            }
-
-            // 取到注解和对应的处理器
-            TextTransform annotation = field.getAnnotation(TextTransform.class);
-            Class<? extends StringConverter> transformerClass = annotation.processorClass();
-
+        for (FormSchema.FieldSchema field : schema.getTextTransformFields()) {
             try {
-                StringConverter transformer = transformerClass.getDeclaredConstructor().newInstance();
-
-                // 拿到当前字段的值
-                field.setAccessible(true);
                 String originalValue = (String) field.get(model);
-
-                // 做转换
-                String newValue = transformer.convert(originalValue);
-
-                // 放回model
-                field.set(model, newValue);
-
+                field.set(model, field.textTransform().convert(originalValue));
             } catch (Exception e) {
                 log.error("handleTextTransform error: ", e);
-                // 你可以选择抛出异常或者忽略
             }
         }
     }
 
     private void clear() {
-        this.model = defaultModel.copy();
+        this.model = defaultModel.copy(true);
 
         for (BaseFormFieldComponent<?> fieldComponent : fieldComponents) {
             fieldComponent.setFormModel(this.model);
@@ -240,75 +258,91 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
     abstract public void onCancel();
 
     /**
-     * 初始化表单字段数据。
+     * 初始化表单字段数据，字段顺序与组件工厂取自预编译的 {@link FormSchema}。
      */
     private void initDataForm() {
-        log.debug("开始初始化数据表单，处理 class：{}", fromClass.getSimpleName());
-
-        List<Field> fieldList = getAllFields(fromClass, ReflectionUtils.withModifier(Modifier.PRIVATE)).stream().toList();
-        log.info("字段的数量为{}，开始处理字段", fieldList.size());
-
-        fieldList = fieldList.stream()
-                .sorted(Comparator.comparingDouble(f -> {
-                    FormField annotation = f.getAnnotation(FormField.class);
-                    return annotation != null ? annotation.order() : 100;
-                }))
-                .filter(field -> !field.isAnnotationPresent(FormIgnore.class))
-                .toList();
-
-        for (Field field : fieldList) {
-            field.setAccessible(true); // Allow access to private fields
-            FormField formFieldInfo = field.getAnnotation(FormField.class);
-
-            if (formFieldInfo == null) {
-                log.debug("字段 [{}] 未标注 FormField 注解，使用默认配置", field.getName());
-                formFieldInfo = new FormField.DefaultFormField();
-            } else {
-                log.debug("字段 [{}] 读取到 FormField 注解配置：{}", field.getName(), formFieldInfo);
-            }
+        List<FormSchema.FieldSchema> fieldList = schema.getFields();
+        log.debug("开始初始化数据表单 {}，字段数量：{}", fromClass.getSimpleName(), fieldList.size());
+
+        for (FormSchema.FieldSchema fieldSchema : fieldList) {
+            FormField formFieldInfo = fieldSchema.formField();
 
             if (!formFieldInfo.display()) {
-                log.debug("字段 [{}] 配置为 display=false，跳过构建", field.getName());
+                log.debug("字段 [{}] 配置为 display=false，跳过构建", fieldSchema.name());
                 continue;
             }
 
             if (!isUpdate && (formFieldInfo.onlyUpdate() || formFieldInfo.id())) {
-                log.debug("字段 [{}] 配置为仅更新字段（onlyUpdate 或 id），在创建数据时跳过", field.getName());
+                log.debug("字段 [{}] 配置为仅更新字段（onlyUpdate 或 id），在创建数据时跳过", fieldSchema.name());
                 continue;
             }
 
-            log.debug("字段 [{}] 符合构建条件，开始生成组件", field.getName());
-            BaseFormFieldComponent<?> fieldComponent = mapComponent(field); // mapComponent 会将组件加入 fieldComponents
+            BaseFormFieldComponent<?> fieldComponent = mapComponent(fieldSchema); // mapComponent 会将组件加入 fieldComponents
             fieldComponent.addFormDataChangeListener(fieldValueChangeListener);
+            onFieldComponentCreated(fieldSchema, fieldComponent);
             // 将组件添加到当前 BaseForm 布局中
             add(fieldComponent);
 
             // 【新增】存储字段名到组件的映射
-            fieldNameToComponentMap.put(field.getName(), fieldComponent);
+            fieldNameToComponentMap.put(fieldSchema.name(), fieldComponent);
 
         }
 
         log.debug("数据表单初始化完成，处理字段总数：{}", fieldList.size());
     }
 
+    /**
+     * 等待重新判断可见性的组件，在本次响应发出前统一处理
+     */
+    private final Set<BaseFormFieldComponent<?>> pendingVisibility = new LinkedHashSet<>();
+    private boolean visibilityPassScheduled = false;
+
+    /**
+     * 字段值变化时，只通过 {@link FormSchema} 的反向依赖索引找出受影响的组件，
+     * 多次变化合并为每次往返一次的可见性判断。
+     */
     BaseFormFieldComponent.FormDataChangeListener fieldValueChangeListener = (field, formModel) -> {
-        for (BaseFormFieldComponent<?> fieldComponent : fieldComponents) {
-            log.debug("字段值改变，字段：{}", field.getName());
-            fieldComponent.applyFormVisibilityCondition(field, formModel);
+        List<FormSchema.FieldSchema> affected = schema.getAffectedFields(field.getName());
+        if (affected.isEmpty()) return;
+        log.debug("字段值改变，字段：{}，受影响字段数：{}", field.getName(), affected.size());
+        for (FormSchema.FieldSchema fieldSchema : affected) {
+            BaseFormFieldComponent<?> component = fieldNameToComponentMap.get(fieldSchema.name());
+            if (component != null) pendingVisibility.add(component);
         }
+        scheduleVisibilityPass();
     };
 
+    private void scheduleVisibilityPass() {
+        UI ui = UI.getCurrent();
+        if (ui == null) {
+            runVisibilityPass();
+            return;
+        }
+        if (visibilityPassScheduled) return;
+        visibilityPassScheduled = true;
+        ui.beforeClientResponse(this, context -> runVisibilityPass());
+    }
+
+    private void runVisibilityPass() {
+        visibilityPassScheduled = false;
+        if (pendingVisibility.isEmpty()) return;
+        List<BaseFormFieldComponent<?>> components = new ArrayList<>(pendingVisibility);
+        pendingVisibility.clear();
+        for (BaseFormFieldComponent<?> component : components) {
+            // 已确定受影响，传 null 表示直接重新判断
+            component.applyFormVisibilityCondition(null, this.model);
+        }
+        log.debug("可见性批量判断完成，字段数：{}", components.size());
+    }
+
     /**
-     * 根据字段类型映射生成对应的表单组件。
+     * 生成字段对应的表单组件：先尝试扩展映射，再使用 {@link FormSchema} 解析好的内置组件工厂。
      *
-     * @param field 字段
+     * @param fieldSchema 字段
      * @return 对应的组件
      */
-    private BaseFormFieldComponent<?> mapComponent(Field field) {
-        log.debug("开始映射字段 [{}] 到表单组件", field.getName());
-
-
-        log.debug("mapComponentmapComponentmapComponent model 开始映射字段 [{}] 到表单组件", this.model);
+    private BaseFormFieldComponent<?> mapComponent(FormSchema.FieldSchema fieldSchema) {
+        Field field = fieldSchema.field();
 
         BaseFormFieldComponent<?> formFieldComponent = this.extendMapComponent(field, this.model);
         if (formFieldComponent != null) {
@@ -317,80 +351,11 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
             return formFieldComponent;
         }
 
-        Class<?> type = field.getType();
-        FormField fromField = field.getAnnotation(FormField.class);
-
-        if (fromField == null) {
-            log.debug("字段 [{}] 没有找到 FormField 注解，使用默认处理", field.getName());
-        }
-
-        if (field.isAnnotationPresent(CustomFormFieldComponent.class)) {
-            log.debug("字段 [{}] 存在 CustomFormFieldComponent 注解，使用自定义构建器生成组件", field.getName());
-            Class<? extends CustomFormFieldComponentBuilder> fieldComponentBuilder = field.getAnnotation(CustomFormFieldComponent.class).value();
-
-            try {
-                CustomFormFieldComponentBuilder customFormFieldComponentBuilder = fieldComponentBuilder.getDeclaredConstructor().newInstance();
-                formFieldComponent = customFormFieldComponentBuilder.build(field, model);
-                log.debug("字段 [{}] 通过自定义构建器生成组件：{}", field.getName(), formFieldComponent.getClass().getSimpleName());
-            } catch (Exception e) {
-                log.error("字段 [{}] 自定义构建器实例化失败", field.getName(), e);
-                throw new RuntimeException(e);
-            }
-
-        } else if (type.equals(String.class) && !fromField.longText() && !fromField.id()) {
-            formFieldComponent = new TextInputField(field, model);
-            log.debug("字段 [{}] 匹配 TextInputField", field.getName());
-        } else if (type.equals(String.class) && fromField.longText() && !fromField.id()) {
-            formFieldComponent = new LongTextInputField(field, model);
-            log.debug("字段 [{}] 匹配 LongTextInputField", field.getName());
-        } else if (fromField.id() && type.equals(String.class)) {
-            formFieldComponent = new StringIdField(field, model);
-            log.debug("字段 [{}] 匹配 StringIdField", field.getName());
-        } else if (fromField.id() && type.equals(Long.class)) {
-            formFieldComponent = new LongIdField(field, model);
-            log.debug("字段 [{}] 匹配 LongIdField", field.getName());
-        } else if (type.equals(BigDecimal.class)) {
-            formFieldComponent = new BigDecimalInputField(field, model);
-            log.debug("字段 [{}] 匹配 BigDecimalInputField", field.getName());
-        } else if (type.equals(Double.class)) {
-            formFieldComponent = new NumberInputField<>(field, model, Double.class);
-            log.debug("字段 [{}] 匹配 NumberInputField<Double>", field.getName());
-        } else if (type.equals(Float.class)) {
-            formFieldComponent = new NumberInputField<>(field, model, Float.class);
-            log.debug("字段 [{}] 匹配 NumberInputField<Float>", field.getName());
-        } else if (type.equals(Long.class)) {
-            formFieldComponent = new NumberInputField<>(field, model, Long.class);
-            log.debug("字段 [{}] 匹配 NumberInputField<Long>", field.getName());
-        } else if (type.equals(Integer.class)) {
-            formFieldComponent = new NumberInputField<>(field, model, Integer.class);
-            log.debug("字段 [{}] 匹配 NumberInputField<Integer>", field.getName());
-        } else if (type.equals(Short.class)) {
-            formFieldComponent = new NumberInputField<>(field, model, Short.class);
-            log.debug("字段 [{}] 匹配 NumberInputField<Short>", field.getName());
-        } else if (type.equals(Byte.class)) {
-            formFieldComponent = new NumberInputField<>(field, model, Byte.class);
-            log.debug("字段 [{}] 匹配 NumberInputField<Byte>", field.getName());
-        } else if (type.equals(Boolean.class)) {
-            formFieldComponent = new BooleanCheckBoxField(field, model);
-            log.debug("字段 [{}] 匹配 BooleanCheckBoxField", field.getName());
-        } else if (type.equals(List.class) && fromField.subType().equals(String.class)) {
-            formFieldComponent = new TagInputField(field, model);
-            log.debug("字段 [{}] 匹配 TagInputField<String>", field.getName());
-        } else if (type.equals(List.class) && fromField.subType().isEnum()) {
-            formFieldComponent = new MultiEnumSelectField(field, model);
-            log.debug("字段 [{}] 匹配 MultiEnumSelectField", field.getName());
-        } else if (type.isEnum()) {
-            formFieldComponent = new SingleEnumSelectBoxField(field, model);
-            log.debug("字段 [{}] 匹配 SingleEnumSelectBoxField", field.getName());
-        } else if (type.equals(OffsetDateTime.class)) {
-            formFieldComponent = new DateTimeField(field, model);
-            log.debug("字段 [{}] 匹配 DateTimeField", field.getName());
-        }
-
-        if (formFieldComponent == null) {
+        if (fieldSchema.factory() == null) {
             log.error("字段 [{}] 未能成功映射到任何组件类型，抛出异常", field.getName());
             throw new IllegalStateException("formFieldComponent为null, 这是不应该发生的, 请检查 " + field.getName() + " 字段的类型");
         }
+        formFieldComponent = fieldSchema.factory().create(field, model);
 
         fieldComponents.add(formFieldComponent);
         log.debug("字段 [{}] 成功添加到表单组件列表，组件类型：{}", field.getName(), formFieldComponent.getClass().getSimpleName());
@@ -411,6 +376,20 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
         return null;
     }
 
+    /**
+     * 字段组件创建并注册监听后调用，子类可在此为组件追加行为
+     */
+    void onFieldComponentCreated(FormSchema.FieldSchema fieldSchema, BaseFormFieldComponent<?> fieldComponent) {
+    }
+
+    protected F getDefaultModel() {
+        return defaultModel;
+    }
+
+    protected FormSchema getSchema() {
+        return schema;
+    }
+
     HorizontalLayout titleLayout;
 
     private void initTitle() {
@@ -424,14 +403,19 @@ public abstract class BaseForm<F extends BaseFormModel> extends VerticalLayout {
 
     /**
      * 设置默认模型并清空当前表单。
+     * <p>
+     * 表单已构建时不重建组件，只把新模型绑定到已有组件（各组件在 clear 时从模型重新读取数据），
+     * 同一个表单实例可以反复用于不同的数据。
      *
      * @param defaultModel 默认模型数据
      */
     public void setDefaultModel(F defaultModel) {
         this.defaultModel = defaultModel;
-        this.model = defaultModel.copy();
-        removeAllUi();
-        initialize();
+        if (initialized) {
+            clear();
+        } else {
+            this.model = defaultModel.copy(true);
+        }
         log.debug("调用 setDefaultModel()，已设置 defaultModel，并清空表单数据，defaultModel 内容：{}", this.model);
     }
 
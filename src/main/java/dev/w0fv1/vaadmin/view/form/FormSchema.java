@@ -0,0 +1,299 @@
+package dev.w0fv1.vaadmin.view.form;
+
+import dev.w0fv1.vaadmin.component.FieldValidator;
+import dev.w0fv1.vaadmin.util.TypeUtil;
+import dev.w0fv1.vaadmin.view.form.component.*;
+import dev.w0fv1.vaadmin.view.form.model.*;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * 表单模型的预编译结构，进程内每个类只解析一次（{@link ClassValue}，随类卸载回收）。
+ * <p>
+ * - {@link #getFields()}：参与表单的私有字段（排除 {@link FormIgnore}），按 {@link FormField#order()} 排序；<br/>
+ * - 每个字段预先解析出组件工厂、可见性条件实例、{@link TextTransform} 转换器、是否带校验约束和读写用的 {@link MethodHandle}；<br/>
+ * - 条件依赖的字段名只解析一次，并建立反向索引（被修改字段 → 需要重新判断可见性的字段），见 {@link #getAffectedFields(String)}；<br/>
+ * - 打开同一类型的表单时，不再扫描字段、读取注解或反射创建条件与转换器。
+ * <p>
+ * 实例不可变，可在任意线程共享；条件与转换器实例被所有表单共享，实现时不应持有状态。
+ */
+@Slf4j
+@Getter
+public final class FormSchema {
+
+    private static final ClassValue<FormSchema> REGISTRY = new ClassValue<>() {
+        @Override
+        protected FormSchema computeValue(Class<?> type) {
+            return new FormSchema(type);
+        }
+    };
+
+    /**
+     * 由字段和表单模型创建组件
+     */
+    @FunctionalInterface
+    public interface ComponentFactory {
+        BaseFormFieldComponent<?> create(Field field, BaseFormModel formModel);
+    }
+
+    /**
+     * 单个字段的预编译信息
+     *
+     * @param formField     字段上的 {@link FormField}，未标注时为默认配置
+     * @param factory       按字段类型解析出的内置组件工厂，无匹配时为 null（可能由表单的扩展映射处理）
+     * @param conditions    可见性条件实例，未标注 {@link ConditionalDisplay} 时为恒真条件
+     * @param conditional   是否标注了 {@link ConditionalDisplay}
+     * @param dependencies  条件依赖的字段名（各条件的并集）
+     * @param dependsOnAny  存在未声明依赖的条件，任意字段变化都要重新判断
+     * @param textTransform {@link TextTransform} 转换器，未标注时为 null
+     * @param constrained   字段上是否声明了 Bean Validation 约束
+     */
+    public record FieldSchema(
+            Field field,
+            String name,
+            FormField formField,
+            ComponentFactory factory,
+            List<FormVisibilityCondition> conditions,
+            boolean conditional,
+            Set<String> dependencies,
+            boolean dependsOnAny,
+            StringConverter textTransform,
+            boolean constrained,
+            MethodHandle getter,
+            MethodHandle setter
+    ) {
+        /**
+         * 字段 changed 变化时是否需要重新判断本字段的可见性
+         */
+        public boolean dependsOn(String changed) {
+            return dependsOnAny || dependencies.contains(changed);
+        }
+
+        public Object get(Object model) {
+            try {
+                return getter.invoke(model);
+            } catch (Throwable e) {
+                throw new IllegalStateException("无法读取字段：" + name, e);
+            }
+        }
+
+        public void set(Object model, Object value) {
+            try {
+                setter.invoke(model, value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("无法写入字段：" + name, e);
+            }
+        }
+    }
+
+    private final Class<?> type;
+    private final FormConfig formConfig;
+    private final List<FieldSchema> fields;
+    private final List<FieldSchema> textTransformFields;
+    /**
+     * 标注了 {@link FormField#heavy()} 的字段
+     */
+    private final List<FieldSchema> heavyFields;
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, FieldSchema> fieldsByName;
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, List<FieldSchema>> dependents;
+    @Getter(lombok.AccessLevel.NONE)
+    private final List<FieldSchema> anyDependents;
+
+    public static FormSchema of(Class<?> type) {
+        return REGISTRY.get(type);
+    }
+
+    /**
+     * 字段对应的预编译信息（按声明类查找），字段不参与表单时返回 null
+     */
+    public static FieldSchema of(Field field) {
+        return of(field.getDeclaringClass()).getField(field.getName());
+    }
+
+    private FormSchema(Class<?> type) {
+        this.type = type;
+        this.formConfig = type.getAnnotation(FormConfig.class);
+
+        List<FieldSchema> all = new ArrayList<>();
+        for (Field field : TypeUtil.declaredFieldsWithSuperclasses(type)) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers)) continue;
+            if (field.isAnnotationPresent(FormIgnore.class)) continue;
+            all.add(buildField(field));
+        }
+        all.sort(Comparator.comparingDouble(f -> f.formField().order()));
+        this.fields = List.copyOf(all);
+
+        Map<String, FieldSchema> byName = new HashMap<>();
+        for (FieldSchema field : fields) {
+            byName.putIfAbsent(field.name(), field);
+        }
+        this.fieldsByName = Collections.unmodifiableMap(byName);
+        this.textTransformFields = fields.stream().filter(f -> f.textTransform() != null).toList();
+        this.heavyFields = fields.stream().filter(f -> f.formField().heavy()).toList();
+
+        Map<String, List<FieldSchema>> reverse = new HashMap<>();
+        List<FieldSchema> any = new ArrayList<>();
+        for (FieldSchema field : fields) {
+            if (!field.conditional()) continue;
+            if (field.dependsOnAny()) {
+                any.add(field);
+                continue;
+            }
+            for (String dependency : field.dependencies()) {
+                reverse.computeIfAbsent(dependency, k -> new ArrayList<>()).add(field);
+            }
+        }
+        reverse.replaceAll((k, v) -> List.copyOf(v));
+        this.dependents = Collections.unmodifiableMap(reverse);
+        this.anyDependents = List.copyOf(any);
+        log.debug("已编译表单结构 {}，字段数：{}", type.getSimpleName(), fields.size());
+    }
+
+    public FieldSchema getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * 字段 changed 变化后需要重新判断可见性的字段：声明依赖它的字段 + 未声明依赖的条件字段。
+     * 未标注 {@link ConditionalDisplay} 的字段恒可见，不会出现在结果中。
+     */
+    public List<FieldSchema> getAffectedFields(String changed) {
+        List<FieldSchema> direct = dependents.getOrDefault(changed, List.of());
+        if (anyDependents.isEmpty()) return direct;
+        if (direct.isEmpty()) return anyDependents;
+        List<FieldSchema> affected = new ArrayList<>(direct);
+        affected.addAll(anyDependents);
+        return affected;
+    }
+
+    private static FieldSchema buildField(Field field) {
+        FormField formField = field.getAnnotation(FormField.class);
+        if (formField == null) {
+            formField = new FormField.DefaultFormField();
+        }
+        MethodHandle getter;
+        MethodHandle setter;
+        try {
+            field.setAccessible(true);
+            getter = MethodHandles.lookup().unreflectGetter(field);
+            setter = Modifier.isFinal(field.getModifiers()) ? null : MethodHandles.lookup().unreflectSetter(field);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("无法访问字段：" + field.getDeclaringClass().getName() + "." + field.getName(), e);
+        }
+        List<FormVisibilityCondition> conditions = buildConditions(field);
+        Set<String> dependencies = new HashSet<>();
+        boolean dependsOnAny = false;
+        for (FormVisibilityCondition condition : conditions) {
+            // getDependentFieldNames 通过 SerializedLambda 反射解析，只在这里调用一次
+            Set<String> names = condition.getDependentFieldNames();
+            if (names.isEmpty()) {
+                dependsOnAny = true;
+            }
+            dependencies.addAll(names);
+        }
+        return new FieldSchema(
+                field,
+                field.getName(),
+                formField,
+                resolveFactory(field, formField),
+                conditions,
+                field.isAnnotationPresent(ConditionalDisplay.class),
+                Set.copyOf(dependencies),
+                dependsOnAny,
+                buildTextTransform(field),
+                FieldValidator.isConstrained(field),
+                getter,
+                setter
+        );
+    }
+
+    /**
+     * 按字段类型选择内置组件，{@link CustomFormFieldComponent} 优先
+     */
+    private static ComponentFactory resolveFactory(Field field, FormField formField) {
+        if (field.isAnnotationPresent(CustomFormFieldComponent.class)) {
+            Class<? extends CustomFormFieldComponentBuilder> builderClass = field.getAnnotation(CustomFormFieldComponent.class).value();
+            try {
+                return builderClass.getDeclaredConstructor().newInstance()::build;
+            } catch (Exception e) {
+                log.error("字段 [{}] 自定义构建器实例化失败", field.getName(), e);
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Class<?> type = field.getType();
+        if (type.equals(String.class) && !formField.longText() && !formField.id()) {
+            return TextInputField::new;
+        } else if (type.equals(String.class) && formField.longText() && !formField.id()) {
+            return LongTextInputField::new;
+        } else if (formField.id() && type.equals(String.class)) {
+            return StringIdField::new;
+        } else if (formField.id() && type.equals(Long.class)) {
+            return LongIdField::new;
+        } else if (type.equals(BigDecimal.class)) {
+            return BigDecimalInputField::new;
+        } else if (type.equals(Double.class)) {
+            return (f, model) -> new NumberInputField<>(f, model, Double.class);
+        } else if (type.equals(Float.class)) {
+            return (f, model) -> new NumberInputField<>(f, model, Float.class);
+        } else if (type.equals(Long.class)) {
+            return (f, model) -> new NumberInputField<>(f, model, Long.class);
+        } else if (type.equals(Integer.class)) {
+            return (f, model) -> new NumberInputField<>(f, model, Integer.class);
+        } else if (type.equals(Short.class)) {
+            return (f, model) -> new NumberInputField<>(f, model, Short.class);
+        } else if (type.equals(Byte.class)) {
+            return (f, model) -> new NumberInputField<>(f, model, Byte.class);
+        } else if (type.equals(Boolean.class)) {
+            return BooleanCheckBoxField::new;
+        } else if (type.equals(List.class) && formField.subType().equals(String.class)) {
+            return TagInputField::new;
+        } else if (type.equals(List.class) && formField.subType().isEnum()) {
+            return MultiEnumSelectField::new;
+        } else if (type.isEnum()) {
+            return SingleEnumSelectBoxField::new;
+        } else if (type.equals(OffsetDateTime.class)) {
+            return DateTimeField::new;
+        }
+        return null;
+    }
+
+    private static List<FormVisibilityCondition> buildConditions(Field field) {
+        if (!field.isAnnotationPresent(ConditionalDisplay.class)) {
+            // 默认一个永远返回true的条件
+            return List.of(new FormVisibilityCondition.DefaultFormVisibilityCondition());
+        }
+        List<FormVisibilityCondition> conditions = new ArrayList<>();
+        for (Class<? extends FormVisibilityCondition> clazz : field.getAnnotation(ConditionalDisplay.class).value()) {
+            try {
+                conditions.add(clazz.getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException e) {
+                log.error("无法创建表单可见性条件实例", e);
+            }
+        }
+        return List.copyOf(conditions);
+    }
+
+    private static StringConverter buildTextTransform(Field field) {
+        if (!field.isAnnotationPresent(TextTransform.class) || !field.getType().equals(String.class)) {
+            return null;
+        }
+        try {
+            return field.getAnnotation(TextTransform.class).processorClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            log.error("字段 [{}] 文本转换器实例化失败", field.getName(), e);
+            return null;
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package dev.w0fv1.vaadmin.view.form;
 
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import dev.w0fv1.vaadmin.GenericRepository;
 import dev.w0fv1.vaadmin.entity.BaseManageEntity;
 import dev.w0fv1.vaadmin.view.form.component.*;
 import dev.w0fv1.vaadmin.view.form.model.*;
+import dev.w0fv1.vaadmin.view.tools.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.transaction.support.TransactionCallback;
 
+import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.math.BigDecimal;
-import java.util.Collection;
-import java.util.List;
-import java.util.function.BiConsumer;
+import java.util.*;
 
+import static dev.w0fv1.vaadmin.util.TypeUtil.isEmpty;
 import static dev.w0fv1.vaadmin.view.tools.Notifier.showNotification;
 
 
@@ -33,23 +39,50 @@ public class RepositoryForm<
 
 
     private final Boolean isUpdate;
+    private ID currentId;
+
+    /**
+     * 输入防抖后再检查唯一性
+     */
+    private static final long UNIQUE_CHECK_DELAY_MILLIS = 400;
+    private final List<FormSchema.FieldSchema> uniqueFields;
+    private final Map<String, Timer> uniqueCheckTimers = new HashMap<>();
+    /**
+     * 当前显示着唯一性错误的字段
+     */
+    private final Set<String> uniqueErrorFields = new HashSet<>();
+
+    /**
+     * 正在加载的重字段（{@link FormField#heavy()}），加载完成前不能保存
+     */
+    private final Set<String> loadingHeavyFields = new HashSet<>();
+    /**
+     * 每次加载递增，重新绑定后忽略上一次加载的结果
+     */
+    private int heavyLoadGeneration = 0;
 
     public RepositoryForm(F fromModel, Save<ID> save, Runnable onCancel, GenericRepository genericRepository) {
         super(fromModel, fromModel != null && fromModel.getId() != null);
         this.isUpdate = fromModel.getId() != null;
+        this.currentId = fromModel.getId();
+        this.uniqueFields = findUniqueFields();
         this.genericRepository = genericRepository;
         this.entityClass = fromModel.getEntityClass();
         this.onCancel = onCancel;
         this.save = save;
+        addDetachListener(e -> cancelUniqueChecks());
     }
 
     public RepositoryForm(F fromModel, BeforeSave<F> beforeSave, Save<ID> save, Runnable onCancel, GenericRepository genericRepository) {
         super(fromModel, fromModel != null && fromModel.getId() != null);
         this.isUpdate = fromModel.getId() != null;
+        this.currentId = fromModel.getId();
+        this.uniqueFields = findUniqueFields();
         this.genericRepository = genericRepository;
         this.entityClass = fromModel.getEntityClass();
         this.onCancel = onCancel;
         this.save = save;
+        addDetachListener(e -> cancelUniqueChecks());
         this.beforeSave = beforeSave;
     }
 
@@ -96,85 +129,263 @@ public class RepositoryForm<
     }
 
 
+    /**
+     * 重新绑定到另一条数据：取消未完成的唯一性检查，再由 {@link BaseForm#setDefaultModel} 复用已有组件
+     */
     @Override
-    public Boolean save(F fromModel) {
+    public void setDefaultModel(F defaultModel) {
+        if (this.isUpdate != (defaultModel.getId() != null)) {
+            throw new IllegalArgumentException(this.isUpdate ? "更新表单只能绑定已有 id 的模型" : "创建表单不能绑定已有 id 的模型");
+        }
+        this.currentId = defaultModel.getId();
+        cancelUniqueChecks();
+        uniqueErrorFields.clear();
+        super.setDefaultModel(defaultModel);
+        loadHeavyFields();
+    }
 
-        log.info(fromModel.toString());
+    @Override
+    public void initialize() {
+        super.initialize();
+        loadHeavyFields();
+    }
 
-        E model = genericRepository.execute(status -> {
-            E saveModel = null;
+    /**
+     * 取消未完成的唯一性检查（重新绑定或表单从页面移除时）
+     */
+    private void cancelUniqueChecks() {
+        uniqueCheckTimers.values().forEach(Timer::cancel);
+        uniqueCheckTimers.clear();
+    }
+
+    /**
+     * 更新时重字段不取自表格数据，而是在虚拟线程中按 id 读取实体的同名属性，完成后推回UI。
+     * 加载期间这些字段不可编辑；加载失败时表单保持不可保存，避免把不完整的值写回。
+     */
+    private void loadHeavyFields() {
+        heavyLoadGeneration++;
+        loadingHeavyFields.clear();
+        List<FormSchema.FieldSchema> heavyFields = getSchema().getHeavyFields();
+        if (!this.isUpdate || currentId == null || heavyFields.isEmpty()) return;
+
+        for (FormSchema.FieldSchema fieldSchema : heavyFields) {
+            BaseFormFieldComponent<?> fieldComponent = getFieldComponent(fieldSchema.name());
+            if (fieldComponent == null) continue;
+            loadingHeavyFields.add(fieldSchema.name());
+            fieldComponent.setEnabled(false);
+        }
+        if (loadingHeavyFields.isEmpty()) return;
+
+        int generation = heavyLoadGeneration;
+        ID id = currentId;
+        List<FormSchema.FieldSchema> fields = heavyFields.stream()
+                .filter(f -> loadingHeavyFields.contains(f.name()))
+                .toList();
+        UI ui = UI.getCurrent();
+        Runnable load = () -> {
+            Map<String, Object> values;
             try {
-                if (this.isUpdate) {
-                    saveModel = genericRepository.find(fromModel.getId(), entityClass);
-                    fromModel.translate(saveModel);
-                } else {
-                    saveModel = fromModel.toEntity();
-                }
-                for (Field declaredField : fromModel.getClass().getDeclaredFields()) {
-                    if (!declaredField.isAnnotationPresent(FormField.class)) {
-                        continue;
-                    }
-                    FormField fromField = declaredField.getAnnotation(FormField.class);
+                values = genericRepository.execute((TransactionCallback<Map<String, Object>>) status -> readHeavyValues(id, fields));
+            } catch (RuntimeException e) {
+                log.error("加载重字段失败 {} id={}", entityClass.getSimpleName(), id, e);
+                values = null;
+            }
+            Map<String, Object> result = values;
+            if (ui == null) {
+                applyHeavyValues(generation, result);
+                return;
+            }
+            try {
+                ui.access(() -> applyHeavyValues(generation, result));
+            } catch (UIDetachedException ignored) {
+                // 表单已关闭
+            }
+        };
+        if (ui == null) {
+            load.run();
+        } else {
+            Thread.startVirtualThread(load);
+        }
+    }
 
+    /**
+     * 读取实体的同名属性；实体不存在时返回 null，类型不匹配的属性跳过
+     */
+    private Map<String, Object> readHeavyValues(ID id, List<FormSchema.FieldSchema> fields) {
+        E entity = genericRepository.find(id, entityClass);
+        if (entity == null) return null;
+        BeanWrapper wrapper = new BeanWrapperImpl(entity);
+        Map<String, Object> values = new HashMap<>();
+        for (FormSchema.FieldSchema fieldSchema : fields) {
+            String name = fieldSchema.name();
+            if (!wrapper.isReadableProperty(name)) {
+                log.warn("重字段 {} 在实体 {} 上没有同名属性", name, entityClass.getSimpleName());
+                continue;
+            }
+            Object value = wrapper.getPropertyValue(name);
+            if (value != null && !fieldSchema.field().getType().isInstance(value)) {
+                log.warn("重字段 {} 的类型与实体属性不一致：{}", name, value.getClass().getName());
+                continue;
+            }
+            // 在事务内复制集合，懒加载的集合关闭会话后无法再读取
+            values.put(name, copyContainer(value));
+        }
+        return values;
+    }
 
-                    if (!declaredField.isAnnotationPresent(FormEntitySelectField.class) && !declaredField.isAnnotationPresent(EntityField.class)) {
-                        continue;
-                    }
-                    EntityField entityField = null;
-                    if (declaredField.isAnnotationPresent(FormEntitySelectField.class)) {
-                        entityField = declaredField.getAnnotation(FormEntitySelectField.class).entityField();
-                    } else {
-                        entityField = declaredField.getAnnotation(EntityField.class);
-                    }
+    @SuppressWarnings("unchecked")
+    private void applyHeavyValues(int generation, Map<String, Object> values) {
+        if (generation != heavyLoadGeneration) return;
+        if (values == null) {
+            showNotification("部分字段加载失败，请关闭后重试", NotificationVariant.LUMO_ERROR);
+            return;
+        }
+        for (String name : loadingHeavyFields) {
+            BaseFormFieldComponent<Object> fieldComponent = (BaseFormFieldComponent<Object>) getFieldComponent(name);
+            if (values.containsKey(name)) {
+                Object value = values.get(name);
+                // 默认模型是保存时比较修改的基准，集合需要独立的实例
+                getSchema().getField(name).set(getDefaultModel(), copyContainer(value));
+                fieldComponent.setData(value);
+                fieldComponent.pushViewData();
+            }
+            fieldComponent.setEnabled(true);
+        }
+        log.debug("重字段加载完成 {} id={}：{}", entityClass.getSimpleName(), currentId, loadingHeavyFields);
+        loadingHeavyFields.clear();
+    }
 
+    private static Object copyContainer(Object value) {
+        if (value instanceof List<?> list) return new ArrayList<>(list);
+        if (value instanceof Map<?, ?> map) return new LinkedHashMap<>(map);
+        return value;
+    }
 
-                    Class<? extends BaseManageEntity<?>> entityClass = entityField.entityType();
-                    Object mapper = entityField.entityMapper().getDeclaredConstructor().newInstance();
+    private List<FormSchema.FieldSchema> findUniqueFields() {
+        return getSchema().getFields().stream()
+                .filter(f -> f.field().isAnnotationPresent(UniqueField.class))
+                .toList();
+    }
 
-                    declaredField.setAccessible(true);
+    @Override
+    void onFieldComponentCreated(FormSchema.FieldSchema fieldSchema, BaseFormFieldComponent<?> fieldComponent) {
+        UniqueField unique = fieldSchema.field().getAnnotation(UniqueField.class);
+        if (unique == null) return;
+        fieldComponent.addFormDataChangeListener((field, formModel) -> scheduleUniqueCheck(fieldSchema, unique, fieldComponent));
+    }
 
-                    if (declaredField.getType().equals(List.class)) {
-                        List<ID> ids = (List<ID>) declaredField.get(fromModel);
-                        List entities = genericRepository.findAll(ids, entityClass);
-                        applyMapper(mapper, saveModel, entities);
-                    } else {
-                        ID id = (ID) declaredField.get(fromModel);
-                        if (id == null && fromField.nullable()) {
-                            applyMapper(mapper, saveModel, null);
-                            continue;
-                        }
-                        if (id == null) {
-                            throw new RuntimeException("id == null && !fromField.nullable()");
-                        }
-
-                        if (id instanceof Number && new BigDecimal(id.toString()).compareTo(BigDecimal.ZERO) == 0) {
-                            continue;
-                        }
-
-
-                        Object entity = genericRepository.find(id, entityClass);
-                        applyMapper(mapper, saveModel, entity);
-                    }
-                }
-                saveModel = genericRepository.save(saveModel);
+    /**
+     * 输入停止 {@link #UNIQUE_CHECK_DELAY_MILLIS} 毫秒后，在虚拟线程中检查值是否已存在，结果推回UI
+     */
+    private void scheduleUniqueCheck(FormSchema.FieldSchema fieldSchema, UniqueField unique, BaseFormFieldComponent<?> fieldComponent) {
+        Timer previous = uniqueCheckTimers.remove(fieldSchema.name());
+        if (previous != null) previous.cancel();
+        showUniqueError(fieldSchema.name(), fieldComponent, null);
 
+        Object value = fieldComponent.getData();
+        UI ui = UI.getCurrent();
+        if (isEmpty(value) || ui == null) return;
 
-                for (Field declaredField : fromModel.getClass().getDeclaredFields()) {
-                    if (!declaredField.isAnnotationPresent(RepositoryMapField.class)) {
-                        continue;
-                    }
-                    RepositoryMapField repositoryMapField = declaredField.getAnnotation(RepositoryMapField.class);
+        Timer timer = new Timer(UNIQUE_CHECK_DELAY_MILLIS, () -> {
+            boolean duplicated = isDuplicated(fieldSchema, unique, value, true);
+            try {
+                ui.access(() -> {
+                    if (!Objects.equals(fieldComponent.getData(), value)) return; // 检查期间值已变化
+                    showUniqueError(fieldSchema.name(), fieldComponent, duplicated ? unique.message() : null);
+                });
+            } catch (UIDetachedException ignored) {
+                // 表单已关闭
+            }
+        });
+        uniqueCheckTimers.put(fieldSchema.name(), timer);
+        timer.start();
+    }
 
-                    if (repositoryMapField.mapper() == null) {
-                        continue;
-                    }
+    /**
+     * 值是否已被其他实体使用。allowBloomFilter 为 true 时，过滤器判定“一定不存在”的值不查询数据库。
+     */
+    private boolean isDuplicated(FormSchema.FieldSchema fieldSchema, UniqueField unique, Object value, boolean allowBloomFilter) {
+        String attribute = unique.attribute().isEmpty() ? fieldSchema.name() : unique.attribute();
+        if (unique.bloomFilter() && allowBloomFilter
+                && UniqueValueIndex.of(genericRepository, unique.entityType(), attribute).definitelyAbsent(value)) {
+            return false;
+        }
+        return genericRepository.execute((TransactionCallback<Boolean>) status ->
+                genericRepository.existsByAttribute(unique.entityType(), attribute, value, currentId));
+    }
 
-                    RepositoryFieldMapper repositoryFieldMapper = repositoryMapField.mapper().getDeclaredConstructor().newInstance();
-                    declaredField.setAccessible(true);
+    private void showUniqueError(String fieldName, BaseFormFieldComponent<?> fieldComponent, String message) {
+        if (message != null) {
+            uniqueErrorFields.add(fieldName);
+            fieldComponent.getErrorMessage().setText(message);
+        } else if (uniqueErrorFields.remove(fieldName)) {
+            fieldComponent.getErrorMessage().setText("");
+        }
+    }
 
-                    repositoryFieldMapper.map(genericRepository, saveModel, fromModel);
-                }
+    /**
+     * 保存前以数据库为准检查唯一字段
+     */
+    private boolean checkUniqueFields(F fromModel) {
+        for (FormSchema.FieldSchema fieldSchema : uniqueFields) {
+            Object value = fieldSchema.get(fromModel);
+            if (isEmpty(value)) continue;
+            UniqueField unique = fieldSchema.field().getAnnotation(UniqueField.class);
+            if (!isDuplicated(fieldSchema, unique, value, false)) continue;
+            BaseFormFieldComponent<?> fieldComponent = getFieldComponent(fieldSchema.name());
+            if (fieldComponent != null) showUniqueError(fieldSchema.name(), fieldComponent, unique.message());
+            showNotification(unique.message(), NotificationVariant.LUMO_ERROR);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Boolean save(F fromModel) {
+
+        log.info(fromModel.toString());
 
+        if (!loadingHeavyFields.isEmpty()) {
+            showNotification("字段仍在加载，请稍后保存", NotificationVariant.LUMO_WARNING);
+            return false;
+        }
+
+        if (!checkUniqueFields(fromModel)) {
+            return false;
+        }
+
+        // 引用字段：每种实体类型一次批量查询，mapper 与其 accept 方法按表单类缓存
+        RepositorySavePlan plan = RepositorySavePlan.of(fromModel.getClass());
+        // 更新时只写入相对打开时变化的实体属性与引用字段；无法比较时 changedProperties 为 null，退回完整 translate
+        Map<String, Object> changedProperties = this.isUpdate ? getChangedProperties(entityClass, getDefaultModel(), fromModel) : null;
+        Set<String> changedReferences = this.isUpdate ? plan.getChangedReferences(getDefaultModel(), fromModel) : null;
+        if (changedProperties != null && changedProperties.isEmpty() && changedReferences.isEmpty() && !plan.hasPostSaveMappers()) {
+            log.debug("表单没有修改，跳过保存 id={}", currentId);
+            if (save != null) {
+                save.run(currentId);
+            }
+            showNotification("没有修改", NotificationVariant.LUMO_CONTRAST);
+            return true;
+        }
+
+        E model = genericRepository.execute(status -> {
+            E saveModel = null;
+            try {
+                if (this.isUpdate) {
+                    saveModel = genericRepository.find(fromModel.getId(), entityClass);
+                    if (changedProperties == null) {
+                        fromModel.translate(saveModel);
+                    } else {
+                        BeanWrapper target = new BeanWrapperImpl(saveModel);
+                        changedProperties.forEach(target::setPropertyValue);
+                        log.debug("部分更新 {} id={}，属性：{}", entityClass.getSimpleName(), currentId, changedProperties.keySet());
+                    }
+                } else {
+                    saveModel = fromModel.toEntity();
+                }
+                plan.applyReferences(genericRepository, fromModel, saveModel, changedReferences);
+                saveModel = genericRepository.save(saveModel);
+                plan.applyPostSaveMappers(genericRepository, saveModel, fromModel);
 
                 if (save != null) {
                     save.run(saveModel.getId());
@@ -183,8 +394,8 @@ public class RepositoryForm<
             } catch (Exception e) {
                 // 回滚事务
                 status.setRollbackOnly();
-                e.printStackTrace();
-                showNotification("保存失败！" + e.getMessage(), NotificationVariant.LUMO_ERROR);
+                log.error("保存失败", e);
+                showNotification("保存失败！" + describeSaveError(e), NotificationVariant.LUMO_ERROR);
 
                 return null;
             }
@@ -195,46 +406,99 @@ public class RepositoryForm<
         if (model == null || model.getId() == null) {
             return false;
         }
+        for (FormSchema.FieldSchema fieldSchema : uniqueFields) {
+            UniqueField unique = fieldSchema.field().getAnnotation(UniqueField.class);
+            if (!unique.bloomFilter()) continue;
+            String attribute = unique.attribute().isEmpty() ? fieldSchema.name() : unique.attribute();
+            UniqueValueIndex.of(genericRepository, unique.entityType(), attribute).add(fieldSchema.get(fromModel));
+        }
         showNotification("保存成功！", NotificationVariant.LUMO_SUCCESS);
         return true;
 
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private static void applyMapper(Object mapper, Object target, Object value) throws Exception {
-        if (mapper == null) {
-            throw new IllegalArgumentException("entityMapper instance is null");
+    /**
+     * 更新时只把变化的属性写入已加载（托管）的实体，配合实体上的 {@code @DynamicUpdate}，UPDATE 语句只包含这些列。
+     * <p>
+     * translate 没有逐字段的接口，且可能读取 {@link FormIgnore} 字段、beforeSave 中设置的值或由多个表单字段组合出一个属性，
+     * 因此把打开时的模型与提交的模型分别 translate 到新的实体实例，比较两者可读写的属性（不含 id）。
+     * 只比较 translate 写入过的属性：两次都没有写入的属性保留实体的默认值（可能每个实例不同，如随机 uuid），不参与比较。
+     *
+     * @return 属性名 → 新值；实体无法实例化或属性无法读取时返回 null
+     */
+    static <E extends BaseManageEntity<ID>, ID> Map<String, Object> getChangedProperties(
+            Class<E> entityClass, BaseEntityFormModel<E, ID> before, BaseEntityFormModel<E, ID> after) {
+        try {
+            E oldScratch = BeanUtils.instantiateClass(entityClass);
+            E newScratch = BeanUtils.instantiateClass(entityClass);
+            BeanWrapper oldEntity = new BeanWrapperImpl(oldScratch);
+            BeanWrapper newEntity = new BeanWrapperImpl(newScratch);
+            List<String> properties = new ArrayList<>();
+            for (PropertyDescriptor property : newEntity.getPropertyDescriptors()) {
+                if ("id".equals(property.getName()) || property.getReadMethod() == null || property.getWriteMethod() == null) continue;
+                properties.add(property.getName());
+            }
+            Map<String, Object> oldDefaults = new HashMap<>();
+            Map<String, Object> newDefaults = new HashMap<>();
+            for (String name : properties) {
+                oldDefaults.put(name, oldEntity.getPropertyValue(name));
+                newDefaults.put(name, newEntity.getPropertyValue(name));
+            }
+            Map<String, Object> oldSnapshots = snapshotValues(oldDefaults);
+            Map<String, Object> newSnapshots = snapshotValues(newDefaults);
+
+            before.translate(oldScratch);
+            after.translate(newScratch);
+
+            Map<String, Object> changed = new LinkedHashMap<>();
+            for (String name : properties) {
+                Object oldValue = oldEntity.getPropertyValue(name);
+                Object newValue = newEntity.getPropertyValue(name);
+                boolean written = isWritten(oldDefaults.get(name), oldSnapshots.get(name), oldValue)
+                        || isWritten(newDefaults.get(name), newSnapshots.get(name), newValue);
+                if (written && !Objects.equals(snapshotValue(oldValue), snapshotValue(newValue))) {
+                    changed.put(name, newValue);
+                }
+            }
+            return changed;
+        } catch (RuntimeException e) {
+            log.debug("无法比较 {} 的属性，改为完整 translate：{}", entityClass.getSimpleName(), e.getMessage());
+            return null;
         }
+    }
 
-        if (mapper instanceof BiConsumer<?, ?> biConsumer) {
-            ((BiConsumer) biConsumer).accept(target, value);
-            return;
-        }
+    /**
+     * 属性是否被 translate 写入：换了实例，或默认的集合/Map 被原地修改
+     */
+    private static boolean isWritten(Object defaultValue, Object defaultSnapshot, Object value) {
+        return value != defaultValue || !Objects.equals(snapshotValue(value), defaultSnapshot);
+    }
 
-        // Most mapper-style APIs use an `accept(target, value)` method (e.g. BiConsumer-like).
-        // Use reflection to avoid coupling to a specific upstream mapper interface/package.
-        Method accept;
-        try {
-            accept = mapper.getClass().getMethod("accept", Object.class, Object.class);
-        } catch (NoSuchMethodException ignored) {
-            accept = null;
-        }
+    private static Map<String, Object> snapshotValues(Map<String, Object> values) {
+        Map<String, Object> snapshots = new HashMap<>();
+        values.forEach((name, value) -> snapshots.put(name, snapshotValue(value)));
+        return snapshots;
+    }
 
-        if (accept == null) {
-            // fallback: any "accept" method with 2 parameters
-            for (Method m : mapper.getClass().getMethods()) {
-                if (!m.getName().equals("accept")) continue;
-                if (m.getParameterCount() != 2) continue;
-                accept = m;
-                break;
-            }
-        }
+    /**
+     * 集合/Map 复制内容后再比较，避免同一实例被原地修改时前后值相等
+     */
+    private static Object snapshotValue(Object value) {
+        if (value instanceof Collection<?> collection) return new ArrayList<>(collection);
+        if (value instanceof Map<?, ?> map) return new HashMap<>(map);
+        return value;
+    }
 
-        if (accept == null) {
-            throw new NoSuchMethodException("Mapper has no accept(target, value): " + mapper.getClass().getName());
+    /**
+     * 数据库约束冲突（如唯一索引）给出可读的提示，其他异常保留原始信息
+     */
+    private static String describeSaveError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return "数据与已有记录冲突" + (violation.getConstraintName() != null ? "（" + violation.getConstraintName() + "）" : "");
+            }
         }
-
-        accept.invoke(mapper, target, value);
+        return e.getMessage();
     }
 
     public interface Save<ID> {
@@ -0,0 +1,264 @@
+package dev.w0fv1.vaadmin.view.form;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+import dev.w0fv1.vaadmin.view.form.model.BaseEntityFormModel;
+import dev.w0fv1.vaadmin.view.form.model.EntityField;
+import dev.w0fv1.vaadmin.view.form.model.FormEntitySelectField;
+import dev.w0fv1.vaadmin.view.form.model.FormField;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * {@link RepositoryForm} 保存时用到的结构，每个表单类只解析一次（{@link ClassValue}）。
+ * <p>
+ * - 引用字段（{@link FormEntitySelectField} / {@link EntityField}）的实体类型与 mapper 实例，mapper 的 accept 预先解析为 {@link MethodHandle}；<br/>
+ * - 保存时先收集全部引用 id，每种实体类型按 {@link GenericRepository#IN_CHUNK_SIZE} 分批查询，再依次调用 mapper；<br/>
+ * - {@link RepositoryMapField} 的 mapper 实例。
+ * <p>
+ * mapper 实例被所有表单共享，实现时不应持有状态。
+ */
+@Slf4j
+final class RepositorySavePlan {
+
+    private static final ClassValue<RepositorySavePlan> REGISTRY = new ClassValue<>() {
+        @Override
+        protected RepositorySavePlan computeValue(Class<?> type) {
+            return new RepositorySavePlan(type);
+        }
+    };
+
+    /**
+     * 单个引用字段
+     *
+     * @param getter (formModel) -> id 或 id 列表
+     * @param accept (target, value) -> void，已绑定 mapper 实例
+     */
+    record Reference(
+            Field field,
+            MethodHandle getter,
+            Class<? extends BaseManageEntity<?>> entityType,
+            boolean list,
+            boolean nullable,
+            MethodHandle accept
+    ) {
+    }
+
+    private final List<Reference> references;
+    private final List<RepositoryFieldMapper> postSaveMappers;
+
+    static RepositorySavePlan of(Class<?> formClass) {
+        return REGISTRY.get(formClass);
+    }
+
+    private RepositorySavePlan(Class<?> formClass) {
+        List<Reference> refs = new ArrayList<>();
+        List<RepositoryFieldMapper> mappers = new ArrayList<>();
+        // 与原先一致，只扫描表单类自身声明的字段（含 FormIgnore）
+        for (Field field : formClass.getDeclaredFields()) {
+            if (field.isAnnotationPresent(RepositoryMapField.class)) {
+                mappers.add(newInstance(field.getAnnotation(RepositoryMapField.class).mapper()));
+            }
+            FormField formField = field.getAnnotation(FormField.class);
+            if (formField == null) continue;
+            EntityField entityField;
+            if (field.isAnnotationPresent(FormEntitySelectField.class)) {
+                entityField = field.getAnnotation(FormEntitySelectField.class).entityField();
+            } else if (field.isAnnotationPresent(EntityField.class)) {
+                entityField = field.getAnnotation(EntityField.class);
+            } else {
+                continue;
+            }
+            refs.add(new Reference(
+                    field,
+                    getterHandle(field),
+                    entityField.entityType(),
+                    field.getType().equals(List.class),
+                    formField.nullable(),
+                    acceptHandle(newInstance(entityField.entityMapper()))
+            ));
+        }
+        this.references = List.copyOf(refs);
+        this.postSaveMappers = List.copyOf(mappers);
+    }
+
+    boolean hasPostSaveMappers() {
+        return !postSaveMappers.isEmpty();
+    }
+
+    /**
+     * before 与 after 中值不同的引用字段名。
+     * 两边是同一个可变集合实例时无法判断是否被原地修改，按已修改处理。
+     */
+    Set<String> getChangedReferences(Object before, Object after) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (Reference reference : references) {
+            Object oldValue = read(reference, before);
+            Object newValue = read(reference, after);
+            boolean sameMutable = oldValue == newValue && oldValue instanceof Collection<?>;
+            if (sameMutable || !Objects.equals(oldValue, newValue)) {
+                changed.add(reference.field().getName());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 把引用字段解析为实体并交给 mapper：每种实体类型按批 {@link GenericRepository#findAll}，必须在事务中调用。
+     * mapper 抛出的受检异常包装为 {@link IllegalStateException}，运行时异常原样抛出。
+     *
+     * @param changed 只处理这些字段，为 null 时处理全部引用字段
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void applyReferences(GenericRepository genericRepository, Object formModel, Object target, Set<String> changed) {
+        List<Reference> references = changed == null ? this.references
+                : this.references.stream().filter(r -> changed.contains(r.field().getName())).toList();
+        if (references.isEmpty()) return;
+
+        Map<Class<?>, Set<Object>> idsByType = new LinkedHashMap<>();
+        for (Reference reference : references) {
+            Object value = read(reference, formModel);
+            Set<Object> ids = idsByType.computeIfAbsent(reference.entityType(), t -> new LinkedHashSet<>());
+            if (reference.list()) {
+                if (value != null) ids.addAll((List<?>) value);
+            } else if (value != null && !isZeroId(value)) {
+                ids.add(value);
+            }
+        }
+
+        Map<Class<?>, Map<Object, Object>> resolved = new HashMap<>();
+        idsByType.forEach((type, ids) -> {
+            Map<Object, Object> byId = new HashMap<>();
+            List<Object> all = new ArrayList<>(ids);
+            for (int from = 0; from < all.size(); from += GenericRepository.IN_CHUNK_SIZE) {
+                List<Object> chunk = all.subList(from, Math.min(from + GenericRepository.IN_CHUNK_SIZE, all.size()));
+                for (Object entity : genericRepository.findAll(chunk, type)) {
+                    byId.put(((BaseManageEntity<?>) entity).getId(), entity);
+                }
+            }
+            log.debug("批量解析引用 {}：请求 {} 个，找到 {} 个", type.getSimpleName(), ids.size(), byId.size());
+            resolved.put(type, byId);
+        });
+
+        for (Reference reference : references) {
+            Map<Object, Object> byId = resolved.get(reference.entityType());
+            Object value = read(reference, formModel);
+            if (reference.list()) {
+                List entities = new ArrayList<>();
+                if (value != null) {
+                    for (Object id : (List<?>) value) {
+                        Object entity = byId.get(id);
+                        if (entity != null) entities.add(entity);
+                    }
+                }
+                accept(reference, target, entities);
+                continue;
+            }
+            if (value == null && reference.nullable()) {
+                accept(reference, target, null);
+                continue;
+            }
+            if (value == null) {
+                throw new RuntimeException("id == null && !fromField.nullable()");
+            }
+            if (isZeroId(value)) {
+                continue;
+            }
+            accept(reference, target, byId.get(value));
+        }
+    }
+
+    private static Object read(Reference reference, Object formModel) {
+        try {
+            return reference.getter().invoke(formModel);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("无法读取引用字段：" + reference.field().getName(), e);
+        }
+    }
+
+    private static void accept(Reference reference, Object target, Object value) {
+        try {
+            reference.accept().invoke(target, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("引用字段 " + reference.field().getName() + " 的 mapper 执行失败", e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void applyPostSaveMappers(GenericRepository genericRepository, BaseManageEntity<?> entity, Object formModel) {
+        for (RepositoryFieldMapper mapper : postSaveMappers) {
+            mapper.map(genericRepository, entity, (BaseEntityFormModel) formModel);
+        }
+    }
+
+    private static boolean isZeroId(Object id) {
+        return id instanceof Number && new BigDecimal(id.toString()).compareTo(BigDecimal.ZERO) == 0;
+    }
+
+    private static MethodHandle getterHandle(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("无法访问字段：" + field.getDeclaringClass().getName() + "." + field.getName(), e);
+        }
+    }
+
+    private static <T> T newInstance(Class<T> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建 mapper：" + type.getName(), e);
+        }
+    }
+
+    /**
+     * mapper 的 accept(target, value)：{@link BiConsumer} 直接使用，其他类型按名称查找两参数的 accept 方法。
+     * 以反射查找避免依赖具体的上游 mapper 接口。
+     */
+    private static MethodHandle acceptHandle(Object mapper) {
+        Method accept = null;
+        if (mapper instanceof BiConsumer<?, ?>) {
+            try {
+                accept = BiConsumer.class.getMethod("accept", Object.class, Object.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (accept == null) {
+            try {
+                accept = mapper.getClass().getMethod("accept", Object.class, Object.class);
+            } catch (NoSuchMethodException ignored) {
+                for (Method m : mapper.getClass().getMethods()) {
+                    if (m.getName().equals("accept") && m.getParameterCount() == 2) {
+                        accept = m;
+                        break;
+                    }
+                }
+            }
+        }
+        if (accept == null) {
+            throw new IllegalStateException("Mapper has no accept(target, value): " + mapper.getClass().getName());
+        }
+        try {
+            accept.setAccessible(true);
+            return MethodHandles.lookup().unreflect(accept)
+                    .bindTo(mapper)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("无法访问 mapper 的 accept 方法：" + mapper.getClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package dev.w0fv1.vaadmin.view.form;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+import dev.w0fv1.vaadmin.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.*;
+
+/**
+ * 某实体属性已有值的布隆过滤器（见 {@link dev.w0fv1.vaadmin.view.form.model.UniqueField#bloomFilter()}），每个仓库 + 实体 + 属性一个。
+ * <p>
+ * - 第一次使用时在虚拟线程中以游标扫描该属性全部值构建，构建完成前不作判断；<br/>
+ * - 通过仓库的变更通知，把新建/更新实体的当前值加入过滤器：变更的 id 合并后由一个虚拟线程按 id 批量只查询该属性；<br/>
+ * - 影响范围未知的批量语句（见 {@link GenericRepository.EntityChange#isUnbounded()}）触发重建；<br/>
+ * - 删除或修改后旧值仍留在过滤器中，只会多一次查询，不会误判为“不存在”。
+ * <p>
+ * 只反映本进程内的变更，因此仅用于输入时的提示，保存前仍以数据库查询为准。
+ */
+@Slf4j
+public class UniqueValueIndex {
+
+    private static final double FPP = 0.01;
+    private static final int FETCH_SIZE = 5000;
+
+    private static final Map<GenericRepository, Map<String, UniqueValueIndex>> INSTANCES = new WeakHashMap<>();
+
+    private final GenericRepository genericRepository;
+    private final Class<?> entityType;
+    private final String attribute;
+
+    /**
+     * 可用的过滤器；为 null 表示尚未构建完成
+     */
+    private volatile BloomFilter filter;
+    /**
+     * 构建中的过滤器，构建期间的变更同时写入，避免遗漏
+     */
+    private volatile BloomFilter building;
+    private boolean rebuilding = false;
+
+    /**
+     * 等待读取当前值的实体 id，及是否已有线程在处理
+     */
+    private final Set<Object> pendingIds = new LinkedHashSet<>();
+    private boolean flushScheduled = false;
+
+    private UniqueValueIndex(GenericRepository genericRepository, Class<?> entityType, String attribute) {
+        this.genericRepository = genericRepository;
+        this.entityType = entityType;
+        this.attribute = attribute;
+        genericRepository.addEntityChangeListener(change -> {
+            if (!entityType.isAssignableFrom(change.entityClass())) return;
+            if (change.isUnbounded()) {
+                // 批量语句影响的值未知，重建完成前不作判断
+                filter = null;
+                rebuild();
+            } else if (change.type() != GenericRepository.EntityChange.Type.DELETED) {
+                enqueue(change.affectedIds());
+            }
+        });
+        rebuild();
+    }
+
+    public static UniqueValueIndex of(GenericRepository genericRepository, Class<?> entityType, String attribute) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(genericRepository, r -> new HashMap<>())
+                    .computeIfAbsent(entityType.getName() + "#" + attribute,
+                            key -> new UniqueValueIndex(genericRepository, entityType, attribute));
+        }
+    }
+
+    /**
+     * 值是否一定不存在；过滤器未就绪或可能存在时返回 false（需要查询数据库）
+     */
+    public boolean definitelyAbsent(Object value) {
+        BloomFilter current = filter;
+        return current != null && !current.mightContain(value);
+    }
+
+    /**
+     * 记录一个已知存在的值（如刚保存成功的值）
+     */
+    public void add(Object value) {
+        if (value == null) return;
+        BloomFilter current = filter;
+        if (current != null) current.add(value);
+        BloomFilter next = building;
+        if (next != null) next.add(value);
+    }
+
+    private synchronized void rebuild() {
+        if (rebuilding) return;
+        rebuilding = true;
+        Thread.startVirtualThread(() -> {
+            try {
+                long total = genericRepository.execute((TransactionCallback<Long>) status ->
+                        genericRepository.getTotalSize(entityType, new GenericRepository.PredicateManager<>()));
+                BloomFilter next = new BloomFilter(Math.max(1024, total * 2), FPP);
+                building = next;
+                long count = genericRepository.execute((TransactionCallback<Long>) status ->
+                        genericRepository.forEachAttributeValue(entityType, attribute, FETCH_SIZE, next::add));
+                filter = next;
+                log.info("唯一值过滤器构建完成 {}.{}：{} 个值，{}", entityType.getSimpleName(), attribute, count, next);
+            } catch (RuntimeException e) {
+                log.error("唯一值过滤器构建失败 {}.{}", entityType.getSimpleName(), attribute, e);
+            } finally {
+                building = null;
+                synchronized (this) {
+                    rebuilding = false;
+                }
+            }
+        });
+    }
+
+    private void enqueue(Collection<Object> ids) {
+        synchronized (pendingIds) {
+            pendingIds.addAll(ids);
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        Thread.startVirtualThread(this::flushPending);
+    }
+
+    /**
+     * 取出当前积累的 id 一次性查询，处理期间新到的 id 在下一轮处理
+     */
+    private void flushPending() {
+        while (true) {
+            List<Object> ids;
+            synchronized (pendingIds) {
+                if (pendingIds.isEmpty()) {
+                    flushScheduled = false;
+                    return;
+                }
+                ids = new ArrayList<>(pendingIds);
+                pendingIds.clear();
+            }
+            try {
+                List<Object> values = genericRepository.execute((TransactionCallback<List<Object>>) status ->
+                        genericRepository.getAttributeValues(entityType, attribute, ids));
+                values.forEach(this::add);
+            } catch (RuntimeException e) {
+                // 丢失值会导致误判“不存在”，改为整体重建
+                log.warn("唯一值过滤器更新失败 {}.{}（{} 个 id），将重建", entityType.getSimpleName(), attribute, ids.size(), e);
+                filter = null;
+                rebuild();
+            }
+        }
+    }
+}
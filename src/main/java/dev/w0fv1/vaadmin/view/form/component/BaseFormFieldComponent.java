@@ -6,7 +6,8 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import dev.w0fv1.vaadmin.util.JsonUtil;
 import dev.w0fv1.vaadmin.util.TypeUtil;
 import dev.w0fv1.vaadmin.view.ErrorMessage;
-import dev.w0fv1.vaadmin.view.form.model.ConditionalDisplay;
+import dev.w0fv1.vaadmin.view.LazyIdList;
+import dev.w0fv1.vaadmin.view.form.FormSchema;
 import dev.w0fv1.vaadmin.view.form.model.FormField;
 import dev.w0fv1.vaadmin.view.form.model.BaseFormModel;
 import dev.w0fv1.vaadmin.view.form.model.FormVisibilityCondition;
@@ -15,9 +16,7 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 import static dev.w0fv1.vaadmin.component.FieldValidator.validField;
 import static dev.w0fv1.vaadmin.util.TypeUtil.defaultIfNull;
@@ -31,7 +30,8 @@ import static dev.w0fv1.vaadmin.util.TypeUtil.isEmpty;
  * 2. initStaticView()：初始化UI控件，只涉及静态结构，不处理数据；
  * 3. initData()：初始化组件数据，可以在子类中重写，但必须调用super.initData()；
  * 4. pushViewData()：根据当前数据刷新UI，要求幂等（相同数据多次调用不会导致UI异常）；
- * 5. getData()/setData()：只处理数据，不操作任何UI控件；getData()应该返回数据的副本；
+ * 5. getData()/setData()：只处理数据，不操作任何UI控件；getData()应该返回数据的副本，setInternalData() 也应复制可变的传入值，
+ *    组件、表单模型与调用方不共享同一个可变集合（只读的数据，如未物化的 {@link LazyIdList}，可直接持有与返回）；
  * 6. 支持自动初始化数据，支持清空和校验。
  *
  * @param <Type> 当前字段绑定的数据类型（如 {@code String}, {@code List<String>})
@@ -45,7 +45,20 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
     private final FormField formField; // 字段注解
     private ErrorMessage errorMessage = new ErrorMessage(); // 错误提示信息
     private final Boolean autoInitialize; // 是否自动初始化数据
-    private List<FormVisibilityCondition> formVisibilityConditions = new ArrayList<>();
+    private final List<FormVisibilityCondition> formVisibilityConditions;
+    @Getter(lombok.AccessLevel.NONE)
+    private final FormSchema.FieldSchema fieldSchema;
+    /**
+     * 数据版本号，值每变化一次加一（值未变化的 setData 不计数）
+     */
+    private long dataVersion = 0;
+    /**
+     * 上次校验的结果及其对应的数据版本
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private String cachedValidMessage;
+    @Getter(lombok.AccessLevel.NONE)
+    private long validatedVersion = -1;
 
     public BaseFormFieldComponent(Field field, BaseFormModel formModel) {
         this(field, formModel, true);
@@ -54,11 +67,18 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
     public void applyFormVisibilityCondition(Field changeField, BaseFormModel baseFormModel) {
         if (formVisibilityConditions.isEmpty()) return;
 
-        boolean shouldEvaluate = formVisibilityConditions.stream().anyMatch(cond ->
-                changeField == null ||
-                        cond.getDependentFieldNames().isEmpty() ||
-                        cond.getDependentFieldNames().contains(changeField.getName())
-        );
+        boolean shouldEvaluate;
+        if (changeField == null) {
+            shouldEvaluate = true;
+        } else if (fieldSchema != null) {
+            // 依赖字段名由 FormSchema 预先解析，避免每次通过 SerializedLambda 反射
+            shouldEvaluate = fieldSchema.dependsOn(changeField.getName());
+        } else {
+            shouldEvaluate = formVisibilityConditions.stream().anyMatch(cond ->
+                    cond.getDependentFieldNames().isEmpty() ||
+                            cond.getDependentFieldNames().contains(changeField.getName())
+            );
+        }
         if (!shouldEvaluate) return;
 
         boolean visible = formVisibilityConditions.stream().allMatch(cond -> cond.evaluate(baseFormModel));
@@ -82,21 +102,11 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
         this.autoInitialize = autoInitialize;
         this.setPadding(false);
 
-        if (field.isAnnotationPresent(ConditionalDisplay.class)) {
-            try {
-                Class<? extends FormVisibilityCondition>[] conditionClasses =
-                        field.getAnnotation(ConditionalDisplay.class).value();
-                for (Class<? extends FormVisibilityCondition> clazz : conditionClasses) {
-                    formVisibilityConditions.add(clazz.getDeclaredConstructor().newInstance());
-                }
-            } catch (InstantiationException | IllegalAccessException |
-                     InvocationTargetException | NoSuchMethodException e) {
-                log.error("无法创建表单可见性条件实例", e);
-            }
-        } else {
-            // 默认一个永远返回true的条件
-            formVisibilityConditions.add(new FormVisibilityCondition.DefaultFormVisibilityCondition());
-        }
+        // 条件实例与字段访问器由 FormSchema 按类缓存，组件之间共享
+        this.fieldSchema = FormSchema.of(field);
+        this.formVisibilityConditions = fieldSchema != null
+                ? fieldSchema.conditions()
+                : List.of(new FormVisibilityCondition.DefaultFormVisibilityCondition());
 
         buildTitle();
     }
@@ -160,18 +170,41 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
      * 设置当前组件持有的数据（模板方法）。
      * 此方法被设为 final，以确保所有子类的设值操作都会触发监听器。
      * 子类不应重写此方法，而应实现 setInternalData() 方法。
+     * <p>
+     * 值未变化时只写回模型、不通知监听器；未开启 debug 日志时不产生额外分配。
      *
      * @param data 要设置的数据
      */
     public final void setData(Type data) {
-        String oldDataJson = JsonUtil.toJsonString(getData()); // Optional: for logging
+        Type oldData = getData();
+        if (isUnchanged(oldData, data)) {
+            invokeModelFileData();
+            return;
+        }
         setInternalData(data); // 1. 调用子类实现的具体设值逻辑
-        String newDataJson = JsonUtil.toJsonString(getData()); // Optional: for logging
-        logDebug("setData: 数据由 [{}] 更新为 [{}]", oldDataJson, newDataJson);
+        dataVersion++;
+        if (log.isDebugEnabled()) {
+            // 序列化只用于日志；大选择（如 LazyIdList）序列化会触发查询
+            logDebug("setData: 数据由 [{}] 更新为 [{}]", JsonUtil.toJsonString(oldData), JsonUtil.toJsonString(getData()));
+        }
         invokeModelFileData();
         notifyListener();      // 2. 自动通知监听器
     }
 
+    /**
+     * 同一个集合实例可能已被原地修改，无法判断，按变化处理；
+     * 未物化的 {@link LazyIdList} 比较会触发查询，也按变化处理。
+     */
+    private static boolean isUnchanged(Object oldData, Object data) {
+        if (oldData == data) {
+            return !(data instanceof Collection<?> || data instanceof Map<?, ?>);
+        }
+        if (oldData instanceof LazyIdList<?, ?> || data instanceof LazyIdList<?, ?>) {
+            return false;
+        }
+        return Objects.equals(oldData, data);
+    }
+
     /**
      * 抽象方法，由子类实现，用于具体设置内部持有的数据。
      * 不涉及UI控件或通知逻辑。
@@ -205,10 +238,13 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
     }
 
     /**
-     * 从表单模型中反射获取当前字段的值。
+     * 从表单模型中获取当前字段的值（使用 {@link FormSchema} 缓存的访问器）。
      */
     @SuppressWarnings("unchecked")
     public Type getModelFieldData() {
+        if (fieldSchema != null) {
+            return (Type) fieldSchema.get(this.getFormModel());
+        }
         getField().setAccessible(true);
         try {
             return (Type) getField().get(this.getFormModel());
@@ -221,9 +257,15 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
      * 将当前组件数据推回表单模型。
      */
     public void invokeModelFileData() {
+        if (log.isDebugEnabled()) {
+            logDebug("将当前数据推回模型：{}", getData());
+        }
+        if (fieldSchema != null && fieldSchema.setter() != null) {
+            fieldSchema.set(this.getFormModel(), getData());
+            return;
+        }
         getField().setAccessible(true);
         try {
-            logDebug("将当前数据推回模型：{}", getData());
             getField().set(this.getFormModel(), getData());
         } catch (IllegalAccessException e) {
             throw new RuntimeException(e);
@@ -237,6 +279,7 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
     public void clear() {
         logDebug("开始清空组件数据和UI");
         clearData();
+        dataVersion++; // clearData 不经过 setData，需要让校验缓存失效
         clearUI();
         clearValid();
         if (autoInitialize) {
@@ -268,24 +311,49 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
      * 校验当前字段数据。
      * 如果校验失败，显示错误信息。
      * 成功时清除错误信息。
+     * <p>
+     * 结果按 {@link #getDataVersion() 数据版本} 缓存，值未变化时不再重复校验。
      */
     public Boolean valid() {
-        logDebug("开始执行字段校验");
-        String validMessage = "";
-
-        if (field.isAnnotationPresent(FormField.class)) {
-            FormField formField = field.getAnnotation(FormField.class);
-            if (formField != null && !formField.nullable() && isEmpty(getData())) {
-                validMessage = "值为空，该字段不允许为空";
-                logDebug("字段不允许为空校验失败");
-            }
+        if (!needsValidation()) {
+            return applyValidMessage(cachedValidMessage);
         }
+        return applyValidation(computeValidMessage());
+    }
 
-        if (validMessage.isEmpty()) {
-            validMessage = validField(field, formModel, getData());
+    /**
+     * 值自上次校验后是否发生过变化
+     */
+    public boolean needsValidation() {
+        return cachedValidMessage == null || validatedVersion != dataVersion;
+    }
+
+    /**
+     * 计算校验信息（空串表示通过），只读取数据、不操作UI，可在其他线程调用。
+     */
+    public String computeValidMessage() {
+        if (formField != null && !formField.nullable() && isEmpty(getData())) {
+            logDebug("字段不允许为空校验失败");
+            return "值为空，该字段不允许为空";
         }
+        if (fieldSchema != null && !fieldSchema.constrained()) {
+            return "";
+        }
+        String validMessage = validField(field, formModel, getData());
+        return validMessage == null ? "" : validMessage;
+    }
+
+    /**
+     * 记录校验结果（与当前数据版本关联）并显示到UI上。
+     */
+    public Boolean applyValidation(String validMessage) {
+        cachedValidMessage = validMessage == null ? "" : validMessage;
+        validatedVersion = dataVersion;
+        return applyValidMessage(cachedValidMessage);
+    }
 
-        if (validMessage != null && !validMessage.isEmpty()) {
+    private Boolean applyValidMessage(String validMessage) {
+        if (!validMessage.isEmpty()) {
             log.warn("字段 [{}] 校验失败: {}，当前为：{}", field.getName(), validMessage, getData());
             if (errorMessage != null) {
                 errorMessage.setText(validMessage);
@@ -293,7 +361,7 @@ public abstract class BaseFormFieldComponent<Type> extends VerticalLayout {
             }
             return false;
         } else {
-            logDebug("字段校验通过，数据为：{}", getData());
+            logDebug("字段校验通过");
             if (errorMessage != null) {
                 errorMessage.setText("");
                 errorMessage.setVisible(false);
@@ -3,6 +3,7 @@ package dev.w0fv1.vaadmin.view.form.component;
 import dev.w0fv1.vaadmin.GenericRepository;
 import dev.w0fv1.vaadmin.entity.BaseManageEntity;
 import dev.w0fv1.vaadmin.view.EntitySelectButton;
+import dev.w0fv1.vaadmin.view.LazyIdList;
 import dev.w0fv1.vaadmin.view.form.model.BaseEntityFormModel;
 import dev.w0fv1.vaadmin.view.form.model.FormField;
 import dev.w0fv1.vaadmin.view.form.model.FormEntitySelectField;
@@ -20,7 +21,7 @@ import java.util.List;
 public class MultiEntitySelectField<E extends BaseManageEntity<ID>, ID> extends BaseFormFieldComponent<List<ID>> {
 
     private EntitySelectButton<E, ID> entitySelectButton; // UI控件
-    private List<ID> data = new ArrayList<>();            // 内部持有数据
+    private List<ID> data = new ArrayList<>();            // 内部持有数据（可能是未物化的只读 LazyIdList）
     private final GenericRepository genericRepository;
 
     public MultiEntitySelectField(Field field, BaseEntityFormModel<E, ID> formModel, GenericRepository genericRepository) {
@@ -45,9 +46,8 @@ public class MultiEntitySelectField<E extends BaseManageEntity<ID>, ID> extends
                 this.genericRepository,
                 formEntitySelectField.enablePredicate() ? ((BaseEntityFormModel) getFormModel()).getEntityPredicateBuilder() : null, null, false);
 
-        this.entitySelectButton.setOnValueChangeListener(selectedIds -> {
-            setData(new ArrayList<>(selectedIds));
-        });
+        // “全部匹配”的选择是 LazyIdList，不复制，保存时才物化
+        this.entitySelectButton.setOnValueChangeListener(this::setData);
 
         add(this.entitySelectButton);
     }
@@ -62,27 +62,31 @@ public class MultiEntitySelectField<E extends BaseManageEntity<ID>, ID> extends
                 entitySelectButton.clear();
             } else {
                 log.info("data:{}", data);
-                entitySelectButton.setValue(new ArrayList<>(data));
+                entitySelectButton.setValue(data);
             }
         }
     }
 
     @Override
     public List<ID> getData() {
-        return data;
+        return data instanceof LazyIdList<?, ?> ? data : new ArrayList<>(data);
     }
 
+    /**
+     * 普通列表复制一份；未物化的 {@link LazyIdList} 本身只读，直接持有，避免复制触发查询
+     */
     @Override
     public void setInternalData(List<ID> data) {
-        this.data.clear();
-        if (data != null) {
-            this.data.addAll(data);
+        if (data == null) {
+            this.data = new ArrayList<>();
+        } else {
+            this.data = data instanceof LazyIdList<?, ?> ? data : new ArrayList<>(data);
         }
     }
 
     @Override
     public void clearData() {
-        this.data.clear();
+        this.data = new ArrayList<>();
     }
 
     @Override
@@ -60,20 +60,17 @@ public class MultiEnumSelectField extends BaseFormFieldComponent<List<Enum<?>>>
 
     @Override
     public List<Enum<?>> getData() {
-        return data;
+        return new ArrayList<>(data);
     }
 
     @Override
     public void setInternalData(List<Enum<?>> data) {
-        this.data.clear();
-        if (data != null) {
-            this.data.addAll(data);
-        }
+        this.data = data != null ? new ArrayList<>(data) : new ArrayList<>();
     }
 
     @Override
     public void clearData() {
-        this.data.clear();
+        this.data = new ArrayList<>();
     }
 
     @Override
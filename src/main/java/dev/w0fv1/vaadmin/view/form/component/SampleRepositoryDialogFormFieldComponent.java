@@ -5,6 +5,7 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
 import dev.w0fv1.vaadmin.GenericRepository;
 import dev.w0fv1.vaadmin.test.Echo;
+import dev.w0fv1.vaadmin.view.LabelResolver;
 import dev.w0fv1.vaadmin.view.form.model.BaseFormModel;
 
 import java.lang.reflect.Field;
@@ -25,34 +26,34 @@ public class SampleRepositoryDialogFormFieldComponent extends BaseDialogFormFiel
     }
 
     /**
-     * 在主界面上添加一个只读文本框用于显示数据，然后调用父类 init View() 初始化对话框及按钮
+     * 在主界面上添加一个只读文本框用于显示数据，然后调用父类 initStaticView() 初始化对话框及按钮
      */
     @Override
-    public void pushViewData() {
-        // 添加主界面显示组件（只读文本框）
+    void initStaticView() {
         textField = new TextField();
         textField.setId(getField().getName());
         textField.setPlaceholder("点击按钮选择内容");
         textField.setReadOnly(true);
         add(textField);
-        // 初始化对话框及打开按钮
-        super.pushViewData();
+        super.initStaticView();
+    }
 
-        if (id != null && id > 0) {
-            var that = this;
-            genericRepository.execute(new Runnable() {
-                @Override
-                public void run() {
-                    if (!genericRepository.exist(id, Echo.class)) {
-                        return;
-                    }
-                    Echo echo = genericRepository.find(id, Echo.class);
-                    that.id = echo.getId();
-                    textField.setValue(that.id + ": " + echo.getMessage());
-                }
-            });
+    /**
+     * 标签经 {@link LabelResolver} 批量解析：同一次渲染中的多个引用字段合并为一次查询
+     */
+    @Override
+    public void pushViewData() {
+        super.pushViewData();
 
+        if (id == null || id <= 0) {
+            textField.clear();
+            return;
         }
+        Long requested = id;
+        LabelResolver.current(genericRepository).request(Echo.class, requested, label -> {
+            if (!requested.equals(id)) return; // 解析期间值已变化
+            textField.setValue(label == null ? "" : label);
+        });
     }
 
     /**
@@ -80,7 +81,8 @@ public class SampleRepositoryDialogFormFieldComponent extends BaseDialogFormFiel
             if (save != null) {
                 this.id = save.getId();
 
-                textField.setValue(this.id + ": " + echo.getMessage());
+                LabelResolver.current(genericRepository).put(Echo.class, save.getId(), save.label());
+                textField.setValue(save.label());
                 setData(this.id);
             }
 
@@ -29,7 +29,6 @@ public class TagInputField extends BaseFormFieldComponent<List<String>> {
         this.tagInput = new TagInput();
         this.tagInput.setEnabled(getFormField().enabled());
         this.tagInput.setOnChangeListener(tags -> {
-            log.debug("getData<UNK>setOnChangeListener{}",tags);
             // 只更新内部数据，不操作UI
             setData(new ArrayList<>(tags));
         });
@@ -51,16 +50,12 @@ public class TagInputField extends BaseFormFieldComponent<List<String>> {
 
     @Override
     public void setInternalData(List<String> data) {
-        this.data.clear();
-
-        if (data != null) {
-            this.data.addAll(data);
-        }
+        this.data = data != null ? new ArrayList<>(data) : new ArrayList<>();
     }
 
     @Override
     public void clearData() {
-        this.data.clear();
+        this.data = new ArrayList<>();
     }
 
     @Override
@@ -61,9 +61,7 @@ public class TextInputField extends BaseFormFieldComponent<String> {
 
     @Override
     public void setInternalData(String data) {
-        String oldData = this.data;
         this.data = data == null ? "" : data;
-        logDebug("setData：由 [{}] 更新为 [{}]", oldData, this.data);
     }
 
     @Override
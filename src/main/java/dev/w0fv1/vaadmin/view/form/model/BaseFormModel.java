@@ -3,43 +3,29 @@ package dev.w0fv1.vaadmin.view.form.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 
-import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
 
 @Getter
 public abstract class BaseFormModel {
 
-    // 深拷贝
-
     /**
-     * Deep-copy this form model, including its vaadminFormConfig map.
+     * 复制表单模型（浅复制字段值），并复制 vaadminFormConfig。
      */
-    @SuppressWarnings("unchecked")
     public <T extends BaseFormModel> T copy() {
-        try {
-            // Create new instance of the same runtime class
-            T copyInstance = (T) this.getClass().getDeclaredConstructor().newInstance();
-
-            // Copy all declared fields (including private) from this to the copy
-            Class<?> cls = this.getClass();
-            while (cls != null && !cls.equals(BaseFormModel.class.getSuperclass())) {
-                for (Field field : cls.getDeclaredFields()) {
-                    field.setAccessible(true);
-                    if (field.isAnnotationPresent(FormIgnore.class)) {
-                        continue;
-                    }
-                    field.set(copyInstance, field.get(this));
-                }
-                cls = cls.getSuperclass();
-            }
-            // Copy the vaadminFormConfig map
-            copyInstance.getVaadminFormConfig().putAll(this.vaadminFormConfig);
+        return copy(false);
+    }
 
-            return copyInstance;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to copy form model", e);
-        }
+    /**
+     * 复制表单模型，并复制 vaadminFormConfig。字段复制由按类编译一次的 {@link FormModelCopier} 完成。
+     *
+     * @param deep 为 true 时 List/Set/Map 字段复制一层容器，修改副本的集合不会影响原对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseFormModel> T copy(boolean deep) {
+        T copyInstance = (T) FormModelCopier.of(this.getClass()).copy(this, deep);
+        copyInstance.getVaadminFormConfig().putAll(this.vaadminFormConfig);
+        return copyInstance;
     }
 
     // 配置字段
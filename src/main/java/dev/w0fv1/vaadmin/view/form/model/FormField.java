@@ -31,6 +31,17 @@ public @interface FormField {
 
     boolean longText() default false;
 
+    /**
+     * 字段的校验器开销较大（如需要查询数据库）。保存时这类字段在虚拟线程上并行校验。
+     */
+    boolean expensiveValidation() default false;
+
+    /**
+     * 字段值较大（长文本、大列表、JSON 等）。更新表单打开后按 id 单独加载（与实体同名属性），
+     * 加载完成前该字段不可编辑、表单不能保存；表格查询因此不必携带完整值。
+     */
+    boolean heavy() default false;
+
     public static class DefaultFormField implements FormField {
 
         @Override
@@ -86,6 +97,16 @@ public @interface FormField {
             return false;
         }
 
+        @Override
+        public boolean expensiveValidation() {
+            return false;
+        }
+
+        @Override
+        public boolean heavy() {
+            return false;
+        }
+
         @Override
         public Class<? extends java.lang.annotation.Annotation> annotationType() {
             return FormField.class;
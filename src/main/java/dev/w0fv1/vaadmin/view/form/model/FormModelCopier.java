@@ -0,0 +1,125 @@
+package dev.w0fv1.vaadmin.view.form.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * 表单模型的复制器，每个类只编译一次（{@link ClassValue}，随类卸载回收）。
+ * <p>
+ * - 无参构造器与各字段的读写预先解析为 {@link MethodHandle}，复制时不再遍历类层次、调用 setAccessible 或 {@link Field#get}；<br/>
+ * - 复制范围与原先的反射实现一致：本类及父类的全部实例字段，跳过 {@link FormIgnore}；<br/>
+ * - 浅复制共享字段值；深复制时 {@link List}/{@link Set}/{@link Map} 字段中的 JDK 可变集合复制一层容器（元素本身仍共享）。
+ * <p>
+ * 也用于复制共享缓存中的表格模型（见 {@link dev.w0fv1.vaadmin.view.table.SharedTablePageCache}），同样只要求无参构造器。
+ * <p>
+ * 实例不可变，可在任意线程共享。
+ */
+@Slf4j
+public final class FormModelCopier {
+
+    private static final ClassValue<FormModelCopier> REGISTRY = new ClassValue<>() {
+        @Override
+        protected FormModelCopier computeValue(Class<?> type) {
+            return new FormModelCopier(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * @param container 字段类型是否为需要深复制的集合/Map
+     */
+    private record Accessor(String name, MethodHandle getter, MethodHandle setter, boolean container) {
+    }
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    private final Accessor[] accessors;
+
+    public static FormModelCopier of(Class<?> type) {
+        return REGISTRY.get(type);
+    }
+
+    private FormModelCopier(Class<?> type) {
+        this.type = type;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<?> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("表单模型缺少可访问的无参构造器：" + type.getName(), e);
+        }
+
+        List<Accessor> list = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+                if (field.isAnnotationPresent(FormIgnore.class)) continue;
+                try {
+                    field.setAccessible(true);
+                    Class<?> fieldType = field.getType();
+                    list.add(new Accessor(
+                            field.getName(),
+                            lookup.unreflectGetter(field).asType(GETTER_TYPE),
+                            lookup.unreflectSetter(field).asType(SETTER_TYPE),
+                            fieldType == List.class || fieldType == ArrayList.class
+                                    || fieldType == Set.class || fieldType == HashSet.class || fieldType == LinkedHashSet.class
+                                    || fieldType == Map.class || fieldType == HashMap.class || fieldType == LinkedHashMap.class
+                    ));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    throw new IllegalStateException("无法访问字段：" + c.getName() + "." + field.getName(), e);
+                }
+            }
+        }
+        this.accessors = list.toArray(new Accessor[0]);
+        log.debug("已编译表单模型复制器 {}，字段数：{}", type.getSimpleName(), accessors.length);
+    }
+
+    /**
+     * 复制 source 的字段到新实例（不含 vaadminFormConfig，由 {@link BaseFormModel#copy} 处理）
+     *
+     * @param deep 为 true 时集合/Map 字段复制一层容器，修改副本的集合不会影响原对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T copy(T source, boolean deep) {
+        if (source.getClass() != type) {
+            throw new IllegalArgumentException("复制器类型不匹配：" + type.getName() + " / " + source.getClass().getName());
+        }
+        try {
+            Object target = constructor.invokeExact();
+            for (Accessor accessor : accessors) {
+                Object value = (Object) accessor.getter().invokeExact(source);
+                if (deep && accessor.container() && value != null) {
+                    value = copyContainer(value);
+                }
+                accessor.setter().invokeExact(target, value);
+            }
+            return (T) target;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("复制表单模型失败：" + type.getName(), e);
+        }
+    }
+
+    /**
+     * 只复制 JDK 的可变集合；不可变集合（如 List.of）与自定义实现（如 LazyIdList）保持共享，避免被提前展开
+     */
+    private static Object copyContainer(Object value) {
+        if (value instanceof ArrayList<?> || value instanceof LinkedList<?>) return new ArrayList<>((List<?>) value);
+        if (value instanceof TreeSet<?> set) return new TreeSet<>(set);
+        if (value instanceof HashSet<?> set) return new LinkedHashSet<>(set);
+        if (value instanceof TreeMap<?, ?> map) return new TreeMap<>(map);
+        if (value instanceof HashMap<?, ?> map) return new LinkedHashMap<>(map);
+        return value;
+    }
+}
@@ -0,0 +1,33 @@
+package dev.w0fv1.vaadmin.view.form.model;
+
+import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 值在数据库中唯一的字段（仅 {@code RepositoryForm} 生效）。
+ * <p>
+ * 输入时防抖后异步检查是否已存在（更新时排除当前实体），保存前再做一次确定的检查，
+ * 避免重复值在 flush 时才以回滚的事务和原始错误暴露出来。
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface UniqueField {
+
+    Class<? extends BaseManageEntity<?>> entityType();
+
+    /**
+     * 实体上的属性名，默认与表单字段同名；该属性应有唯一索引
+     */
+    String attribute() default "";
+
+    String message() default "该值已存在，请更换";
+
+    /**
+     * 在内存中维护该属性已有值的布隆过滤器，输入时“一定不存在”的值无需查询数据库
+     */
+    boolean bloomFilter() default false;
+}
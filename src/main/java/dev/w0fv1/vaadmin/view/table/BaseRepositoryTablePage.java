@@ -2,18 +2,33 @@ package dev.w0fv1.vaadmin.view.table;
 
 import com.vaadin.flow.component.*;
 import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.checkbox.Checkbox;
 import com.vaadin.flow.component.dialog.Dialog;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import dev.w0fv1.vaadmin.GenericRepository;
 import dev.w0fv1.vaadmin.GenericRepository.SortOrder;
 import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+import dev.w0fv1.vaadmin.util.TypeUtil;
 import dev.w0fv1.vaadmin.view.BasePage;
+import dev.w0fv1.vaadmin.view.ConfirmDialog;
 import dev.w0fv1.vaadmin.view.InfoTable;
+import dev.w0fv1.vaadmin.view.form.FormSchema;
 import dev.w0fv1.vaadmin.view.form.RepositoryForm;
 import dev.w0fv1.vaadmin.view.form.model.BaseEntityFormModel;
+import dev.w0fv1.vaadmin.view.form.model.FormField;
+import dev.w0fv1.vaadmin.view.form.model.FormModelCopier;
 import dev.w0fv1.vaadmin.view.table.model.BaseEntityTableModel;
 import dev.w0fv1.vaadmin.view.table.model.TableField;
+import dev.w0fv1.vaadmin.view.table.model.TableModelMetadata;
+import dev.w0fv1.vaadmin.view.tools.Notifier;
+import dev.w0fv1.vaadmin.view.tools.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import jakarta.persistence.criteria.Expression;
@@ -22,11 +37,16 @@ import jakarta.persistence.criteria.Predicate;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.query.criteria.JpaExpression;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.transaction.support.TransactionCallback;
 import com.vaadin.flow.data.provider.QuerySortOrder;
 
-import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -44,18 +64,99 @@ public abstract class BaseRepositoryTablePage<
 
     private final Map<String, GenericRepository.PredicateBuilder<E>> extendPredicateBuilders = new HashMap<>();
 
+    @Getter
     private final Class<E> entityClass;
     private final Class<F> formClass;
     private final Class<T> tableClass;
 
     private Dialog createDialog;
     private RepositoryForm<F, E, ID> createFormInstance;
+    private Dialog updateDialog;
+    private RepositoryForm<F, E, ID> updateFormInstance;
+    private Dialog detailDialog;
     @Getter
     private F defaultFormModel;
 
 
     List<SortOrder> sortOrders = new ArrayList<>();
 
+    /**
+     * 实时刷新：单次推送最多逐行刷新的行数，超过则整体刷新
+     */
+    private static final int MAX_LIVE_REFRESH_ITEMS = 500;
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * 逐条批量操作每块加载的实体数
+     */
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    /**
+     * 批量选择（逐行 id 或“全部匹配”谓词 + 排除项），不随刷新清空
+     */
+    @Getter
+    private final BulkSelection<E, ID> bulkSelection = new BulkSelection<>();
+    private Span bulkStatus;
+
+    private final Set<ID> loadedIds = ConcurrentHashMap.newKeySet();
+    private final Set<ID> pendingUpdatedIds = new HashSet<>();
+    private final Set<ID> pendingCreatedIds = new HashSet<>();
+    private boolean pendingDeleted = false;
+    private boolean liveFlushScheduled = false;
+    private GenericRepository.EntityChangeListener entityChangeListener;
+    private UI liveUI;
+    private Button newRowsBadge;
+    private long newRowsCount = 0;
+
+    /**
+     * 预览列（属性名 → 截取字符数），以及已加载行的预览值（行 id → 属性名 → 预览）
+     */
+    private final Map<String, Integer> previewLengths;
+    private final Map<Object, Map<String, GenericRepository.Preview>> rowPreviews = new ConcurrentHashMap<>();
+    private final PreviewSource<T> rowPreviewSource = new PreviewSource<>() {
+        @Override
+        public GenericRepository.Preview getPreview(T item, String columnKey) {
+            if (item.getId() == null) return null;
+            Map<String, GenericRepository.Preview> previews = rowPreviews.get(item.getId());
+            return previews == null ? null : previews.get(columnKey);
+        }
+
+        @Override
+        public String loadFullText(T item, String columnKey, long offset, int length) {
+            ID id = item.getId();
+            return genericRepository.execute((TransactionCallback<String>) status ->
+                    genericRepository.getAttributeText(entityClass, id, columnKey, offset, length));
+        }
+    };
+
+    /**
+     * 分组统计由数据库 GROUP BY 完成；组内数据在当前筛选条件上追加分组键条件，沿用普通的分页查询（及共享缓存），
+     * 但不登记到 loadedIds / rowPreviews
+     */
+    private final GroupSource<T> groupSource = new GroupSource<>() {
+        @Override
+        public List<GenericRepository.Group> loadGroups(String filter, List<String> groupKeys, List<String> sumKeys, int limit) {
+            GenericRepository.PredicateManager<E> predicates = snapshotPredicates(filter);
+            return genericRepository.execute((TransactionCallback<List<GenericRepository.Group>>) status ->
+                    genericRepository.getGroups(entityClass, predicates, groupKeys, sumKeys, limit));
+        }
+
+        @Override
+        public Supplier<List<GenericRepository.PreviewRow<T>>> prepareGroupChunk(GenericRepository.Group group, List<String> groupKeys,
+                                                                                 int offset, int limit, String filter, List<QuerySortOrder> querySortOrders) {
+            GenericRepository.PredicateManager<E> predicates = snapshotPredicates(filter);
+            predicates.putPredicate("group", GenericRepository.groupPredicate(groupKeys, group.keys()));
+            return prepareRows(offset, limit, filter, predicates, resolveSortOrders(querySortOrders));
+        }
+    };
+
+    /**
+     * JSONB 路径列（列 key → 路径）及列表查询的投影内容
+     */
+    private final Map<String, GenericRepository.JsonPath> jsonPaths;
+    private final GenericRepository.Projection projection;
+
     public void setSortOrders(List<SortOrder> sortOrders) {
         this.sortOrders = sortOrders;
         refresh();
@@ -70,7 +171,11 @@ public abstract class BaseRepositoryTablePage<
     }
 
     public BaseRepositoryTablePage(GenericRepository genericRepository, Class<T> tableClass, Class<F> formClass, F formModel, Class<E> entityClass) {
-        super(tableClass);
+        this(genericRepository, tableClass, formClass, formModel, entityClass, new Grid<>());
+    }
+
+    protected BaseRepositoryTablePage(GenericRepository genericRepository, Class<T> tableClass, Class<F> formClass, F formModel, Class<E> entityClass, Grid<T> grid) {
+        super(tableClass, grid);
         this.genericRepository = genericRepository;
         this.entityClass = entityClass;
         this.formClass = formClass;
@@ -84,16 +189,32 @@ public abstract class BaseRepositoryTablePage<
             }
         }
         this.defaultFormModel = formModel;
+        this.previewLengths = getMetadata().getPreviewLengths();
+
+        Map<String, GenericRepository.JsonPath> paths = new LinkedHashMap<>();
+        for (TableModelMetadata.Column column : getMetadata().getJsonColumns()) {
+            paths.put(column.key(), GenericRepository.JsonPath.parse(column.json().source(), column.json().path()));
+        }
+        this.jsonPaths = Collections.unmodifiableMap(paths);
+        // 只通过路径展示的文档属性不加载
+        Set<String> omitted = paths.values().stream()
+                .map(GenericRepository.JsonPath::source)
+                .filter(source -> getMetadata().getColumn(source) == null)
+                .collect(Collectors.toSet());
+        this.projection = new GenericRepository.Projection(previewLengths, jsonPaths, omitted);
     }
 
 
+
     @Override
     public void initialize() {
         presetPredicate();
         predicateManager.addAllPredicates(extendPredicateBuilders);
         super.initialize(); // 构建 UI
         buildRepositoryActionColumn();
+        buildBulkActions();
         buildCreateDialog();
+        buildLiveUpdates();
         onBuild();
     }
 
@@ -105,6 +226,174 @@ public abstract class BaseRepositoryTablePage<
         // 子类可在保存后处理
     }
 
+    /**
+     * 订阅实体变更：页面附加时注册监听，分离时注销。
+     * 变更在合并窗口内累积，随后在一次 {@link UI#access} 中推送：
+     * 已显示的行逐行刷新，新增且符合当前筛选的数据以“N 条新数据”提示，删除则整体刷新。
+     */
+    private void buildLiveUpdates() {
+        if (!getTableConfig().liveUpdates()) return;
+
+        newRowsBadge = new Button("", VaadinIcon.ARROW_CIRCLE_UP.create(), e -> refresh());
+        newRowsBadge.addThemeVariants(ButtonVariant.LUMO_SUCCESS, ButtonVariant.LUMO_SMALL);
+        newRowsBadge.setVisible(false);
+        addTitleBar(newRowsBadge);
+
+        addAttachListener(e -> subscribeEntityChanges(e.getUI()));
+        addDetachListener(e -> unsubscribeEntityChanges());
+        getUI().ifPresent(this::subscribeEntityChanges);
+    }
+
+    private void subscribeEntityChanges(UI ui) {
+        if (entityChangeListener != null) return;
+        liveUI = ui;
+        entityChangeListener = this::onEntityChange;
+        genericRepository.addEntityChangeListener(entityChangeListener);
+    }
+
+    private void unsubscribeEntityChanges() {
+        if (entityChangeListener == null) return;
+        genericRepository.removeEntityChangeListener(entityChangeListener);
+        entityChangeListener = null;
+        liveUI = null;
+    }
+
+    /**
+     * 变更回调（在提交事务的线程上执行），只做记录与调度
+     */
+    @SuppressWarnings("unchecked")
+    private void onEntityChange(GenericRepository.EntityChange change) {
+        if (!entityClass.isAssignableFrom(change.entityClass())) return;
+        UI ui = liveUI;
+        if (ui == null) return;
+
+        synchronized (pendingUpdatedIds) {
+            switch (change.type()) {
+                // 批量语句不带 id，影响范围未知，整体刷新
+                case CREATED -> change.affectedIds().forEach(id -> pendingCreatedIds.add((ID) id));
+                case UPDATED -> {
+                    if (change.isUnbounded()) pendingDeleted = true;
+                    else change.affectedIds().forEach(id -> pendingUpdatedIds.add((ID) id));
+                }
+                case DELETED -> pendingDeleted |= change.isUnbounded()
+                        || change.affectedIds().stream().anyMatch(id -> loadedIds.contains((ID) id));
+            }
+            if (liveFlushScheduled) return;
+            liveFlushScheduled = true;
+        }
+
+        new Timer(getTableConfig().liveUpdateDelayMillis(), () -> {
+            try {
+                ui.access(this::flushEntityChanges);
+            } catch (UIDetachedException e) {
+                // 页面可能被重新附加（如 @PreserveOnRefresh），重置调度标记，否则之后的变更不再推送
+                synchronized (pendingUpdatedIds) {
+                    liveFlushScheduled = false;
+                }
+                log.debug("页面已分离，丢弃实时刷新");
+            }
+        }).start();
+    }
+
+    /**
+     * 在 UI 线程上应用合并后的变更
+     */
+    private void flushEntityChanges() {
+        Set<ID> updated;
+        Set<ID> created;
+        boolean deleted;
+        synchronized (pendingUpdatedIds) {
+            updated = new HashSet<>(pendingUpdatedIds);
+            created = new HashSet<>(pendingCreatedIds);
+            deleted = pendingDeleted;
+            pendingUpdatedIds.clear();
+            pendingCreatedIds.clear();
+            pendingDeleted = false;
+            liveFlushScheduled = false;
+        }
+
+        updated.retainAll(loadedIds);
+        if (deleted || updated.size() > MAX_LIVE_REFRESH_ITEMS) {
+            refresh();
+            return;
+        }
+        if (!updated.isEmpty()) {
+            updated.forEach(rowPreviews::remove);
+            reloadItems(updated).forEach(this::refreshItem);
+            log.debug("实时刷新 {} 行", updated.size());
+        }
+
+        // 自己保存后表格已刷新，新行可能已在显示中
+        created.removeAll(loadedIds);
+        if (!created.isEmpty()) {
+            long matching = countMatching(created);
+            if (matching > 0) {
+                newRowsCount += matching;
+                newRowsBadge.setText(newRowsCount + " 条新数据");
+                newRowsBadge.setVisible(true);
+            }
+        }
+    }
+
+    private List<T> reloadItems(Collection<ID> ids) {
+        return genericRepository.execute((TransactionCallback<List<T>>) status ->
+                genericRepository.findAll(new ArrayList<>(ids), entityClass).stream()
+                        .map(this::convertToDto)
+                        .toList());
+    }
+
+    /**
+     * 统计给定 id 中符合当前筛选条件的数量
+     */
+    private long countMatching(Collection<ID> ids) {
+        GenericRepository.PredicateManager<E> predicates = snapshotPredicates(getCurrentFilter());
+        List<ID> idList = new ArrayList<>(ids);
+        predicates.putPredicate("liveUpdateIds", (cb, root, preds) -> preds.add(root.get("id").in(idList)));
+        return genericRepository.execute((TransactionCallback<Long>) status ->
+                genericRepository.getTotalSize(entityClass, predicates));
+    }
+
+    @Override
+    public void refresh() {
+        loadedIds.clear();
+        rowPreviews.clear();
+        newRowsCount = 0;
+        if (newRowsBadge != null) newRowsBadge.setVisible(false);
+        super.refresh();
+    }
+
+    @Override
+    protected Object getItemId(T item) {
+        return item.getId();
+    }
+
+    /**
+     * 配置了预览列时，预览值取自加载行时登记的 rowPreviews，完整值按 id 分段读取
+     */
+    @Override
+    protected PreviewSource<T> getPreviewSource() {
+        return previewLengths.isEmpty() ? null : rowPreviewSource;
+    }
+
+    /**
+     * 使用预览列时，表格中的行不含完整值，打开详情/更新前按 id 重新读取完整数据
+     */
+    private T loadFullItem(T item) {
+        if (previewLengths.isEmpty()) return item;
+        return reloadItems(List.of(item.getId())).stream().findFirst().orElse(item);
+    }
+
+    /**
+     * 被截断的预览列都是表单的重字段（{@link FormField#heavy()}，表单打开后按 id 单独加载）时，直接使用表格中的行
+     */
+    private T loadItemForUpdate(T item) {
+        if (previewLengths.isEmpty()) return item;
+        Set<String> heavyFields = FormSchema.of(formClass).getHeavyFields().stream()
+                .map(FormSchema.FieldSchema::name)
+                .collect(Collectors.toSet());
+        return heavyFields.containsAll(previewLengths.keySet()) ? item : loadFullItem(item);
+    }
+
     private void buildCreateDialog() {
         Dialog dialog = new Dialog();
         try {
@@ -148,37 +437,228 @@ public abstract class BaseRepositoryTablePage<
         }
     }
 
-    private Component createShowDetailButton(T t) {
-        Button button = new Button("详情");
-        button.addClickListener(event -> {
-            Dialog updateDialog = new Dialog();
+    /**
+     * 批量操作：首列勾选框 + “选择全部匹配” + 子类提供的 {@link BulkAction}（及可选的批量删除）。
+     * “全部匹配”保存的是选择时的谓词快照与排除项，执行时直接转换为 SQL 条件，不加载行。
+     */
+    private void buildBulkActions() {
+        if (!enableBulkActions()) return;
 
-            InfoTable infoTable = InfoTable.of(t);
-            updateDialog.add(infoTable);
+        Grid.Column<T> selectColumn = super.extendGridComponentColumn(this::createBulkCheckbox)
+                .setHeader("选择")
+                .setAutoWidth(true)
+                .setFlexGrow(0)
+                .setFrozen(true);
+        List<Grid.Column<T>> order = new ArrayList<>();
+        order.add(selectColumn);
+        grid.getColumns().stream().filter(c -> c != selectColumn).forEach(order::add);
+        grid.setColumnOrder(order);
 
-            add(updateDialog);
-            updateDialog.open();
+        bulkStatus = new Span();
+        List<Component> components = new ArrayList<>();
+        components.add(bulkStatus);
+        components.add(new Button("选择全部匹配", e -> selectAllMatching()));
+        components.add(new Button("清除选择", e -> clearBulkSelection()));
+        for (BulkAction<E> action : getBulkActions()) {
+            components.add(new Button(action.label(), e -> confirmBulkAction(action.label(), () -> runBulkAction(action))));
+        }
+        if (enableBulkDelete()) {
+            Button delete = new Button("删除所选", e -> confirmBulkAction("删除所选", this::runBulkDelete));
+            delete.addThemeVariants(ButtonVariant.LUMO_ERROR);
+            components.add(delete);
+        }
+        addSecondaryAction(components.toArray(new Component[0]));
+        updateBulkStatus();
+    }
+
+    private Component createBulkCheckbox(T t) {
+        ID id = t.getId();
+        Checkbox checkbox = new Checkbox(bulkSelection.contains(id));
+        checkbox.addValueChangeListener(e -> {
+            if (!e.isFromClient()) return;
+            bulkSelection.set(id, e.getValue());
+            updateBulkStatus();
         });
+        return checkbox;
+    }
+
+    private void selectAllMatching() {
+        String filter = getCurrentFilter();
+        bulkSelection.selectAllMatching(snapshotPredicates(filter), getTotalSize(filter));
+        updateBulkStatus();
+        super.refresh(); // 重新渲染勾选状态
+    }
+
+    public void clearBulkSelection() {
+        if (bulkSelection.isEmpty() && !bulkSelection.isAllMatching()) return;
+        bulkSelection.clear();
+        updateBulkStatus();
+        super.refresh();
+    }
+
+    private void updateBulkStatus() {
+        if (bulkStatus != null) bulkStatus.setText(bulkSelection.describe());
+    }
+
+    private void confirmBulkAction(String label, Runnable action) {
+        if (bulkSelection.isEmpty()) {
+            Notifier.showNotification("请先选择数据", NotificationVariant.LUMO_WARNING);
+            return;
+        }
+        // 不加入页面，关闭后随之分离
+        new ConfirmDialog(label, bulkSelection.describe(), action).open();
+    }
+
+    private void runBulkAction(BulkAction<E> action) {
+        GenericRepository.PredicateManager<E> predicates = bulkSelection.toPredicates();
+        if (action.isSetBased()) {
+            runSetBasedBulkAction(action.label(), () -> genericRepository.updateAll(entityClass, predicates, action.setter()));
+        } else {
+            runChunkedBulkAction(action.label(), predicates, action.action());
+        }
+    }
+
+    private void runBulkDelete() {
+        GenericRepository.PredicateManager<E> predicates = bulkSelection.toPredicates();
+        runSetBasedBulkAction("删除所选", () -> genericRepository.deleteAll(entityClass, predicates));
+    }
+
+    /**
+     * 执行一条批量语句；失败（如外键约束）时事务已回滚，提示错误并刷新表格
+     */
+    private void runSetBasedBulkAction(String label, Supplier<Integer> statement) {
+        int count;
+        try {
+            count = statement.get();
+        } catch (Exception e) {
+            log.error("批量操作 {} 失败", label, e);
+            Notifier.showNotification(label + " 失败：" + e.getMessage(), NotificationVariant.LUMO_ERROR);
+            refresh();
+            return;
+        }
+        finishBulkAction(label, count);
+    }
+
+    /**
+     * 逐条执行：按 id 升序键集分块加载实体，每块一个事务，在虚拟线程中执行并推送进度。
+     * 键集分页不受处理后行不再匹配筛选条件的影响。
+     */
+    private void runChunkedBulkAction(String label, GenericRepository.PredicateManager<E> predicates, Consumer<E> action) {
+        UI ui = UI.getCurrent();
+        long total = Math.max(bulkSelection.size(), 1);
+        ProgressBar progressBar = new ProgressBar(0, total, 0);
+        Span progressText = new Span("0 / " + total);
+        AtomicBoolean stopped = new AtomicBoolean(false);
+
+        Dialog dialog = new Dialog();
+        dialog.setHeaderTitle(label);
+        dialog.setCloseOnEsc(false);
+        dialog.setCloseOnOutsideClick(false);
+        dialog.setWidth("400px");
+        dialog.add(new VerticalLayout(progressBar, progressText));
+        dialog.getFooter().add(new Button("停止", e -> stopped.set(true)));
+        add(dialog);
+        dialog.open();
+
+        Thread.startVirtualThread(() -> {
+            long done = 0;
+            Object afterId = null;
+            String error = null;
+            try {
+                while (!stopped.get()) {
+                    Object after = afterId;
+                    List<Object> ids = genericRepository.getIdsAfter(entityClass, predicates, after, BULK_CHUNK_SIZE);
+                    if (ids.isEmpty()) break;
+                    // 整块修改托管实体后一次 flush，并只发出一条带这批 id 的变更通知
+                    genericRepository.execute((TransactionCallback<Integer>) status ->
+                            genericRepository.updateEach(entityClass, ids, action));
+                    done += ids.size();
+                    afterId = ids.getLast();
+                    long current = done;
+                    ui.access(() -> {
+                        progressBar.setValue(Math.min(current, total));
+                        progressText.setText(current + " / " + total);
+                    });
+                    if (ids.size() < BULK_CHUNK_SIZE) break;
+                }
+            } catch (Exception e) {
+                log.error("批量操作 {} 失败，已处理 {} 条", label, done, e);
+                error = e.getMessage();
+            }
+            long processed = done;
+            String failure = error;
+            try {
+                ui.access(() -> {
+                    dialog.close();
+                    remove(dialog);
+                    if (failure != null) {
+                        Notifier.showNotification(label + " 失败（已处理 " + processed + " 条）：" + failure, NotificationVariant.LUMO_ERROR);
+                        refresh();
+                    } else {
+                        finishBulkAction(label, processed);
+                    }
+                });
+            } catch (UIDetachedException e) {
+                log.debug("页面已分离，批量操作 {} 已处理 {} 条", label, processed);
+            }
+        });
+    }
+
+    private void finishBulkAction(String label, long count) {
+        log.info("批量操作 {} 完成 entity={} 条数：{}", label, entityClass.getSimpleName(), count);
+        bulkSelection.clear();
+        updateBulkStatus();
+        refresh();
+        Notifier.showNotification(label + " 完成，共 " + count + " 条");
+    }
+
+    private Component createShowDetailButton(T t) {
+        Button button = new Button("详情");
+        button.addClickListener(event -> openDetailDialog(t));
         return button;
     }
 
     private Component createUpdateButton(T t) {
         Button button = new Button("更新");
-        button.addClickListener(event -> {
-            Dialog updateDialog = new Dialog();
-            RepositoryForm<F, E, ID> form = new RepositoryForm<>(
-                    (F) t.toFormModel(defaultFormModel),
+        button.addClickListener(event -> openUpdateDialog(t));
+        return button;
+    }
+
+    /**
+     * 详情对话框在页面内复用，每次打开只替换其中的 InfoTable
+     */
+    private void openDetailDialog(T item) {
+        if (detailDialog == null) {
+            detailDialog = new Dialog();
+            add(detailDialog);
+        }
+        detailDialog.removeAll();
+        detailDialog.add(InfoTable.of(loadFullItem(item)));
+        detailDialog.open();
+    }
+
+    /**
+     * 更新对话框与表单在页面内只创建一次，之后每次打开只把新数据绑定到已有表单（见 {@link RepositoryForm#setDefaultModel}）
+     */
+    private void openUpdateDialog(T item) {
+        F formModel = (F) loadItemForUpdate(item).toFormModel(defaultFormModel);
+        if (updateFormInstance == null) {
+            Dialog dialog = new Dialog();
+            updateFormInstance = new RepositoryForm<>(
+                    formModel,
                     this::beforeSave,
-                    id -> handleSave(id, updateDialog),
-                    () -> handleCancel(updateDialog),
+                    id -> handleSave(id, dialog),
+                    () -> handleCancel(dialog),
                     genericRepository
             );
-            form.initialize();
-            updateDialog.add(new VerticalLayout(form));
+            updateFormInstance.initialize();
+            dialog.add(new VerticalLayout(updateFormInstance));
+            updateDialog = dialog;
             add(updateDialog);
-            updateDialog.open();
-        });
-        return button;
+        } else {
+            updateFormInstance.setDefaultModel(formModel);
+        }
+        updateDialog.open();
     }
 
     @Override
@@ -192,18 +672,34 @@ public abstract class BaseRepositoryTablePage<
      */
     @Override
     protected List<T> loadChunk(int offset, int limit, String filter, List<QuerySortOrder> querySortOrders) {
-        return genericRepository.execute((TransactionCallback<List<T>>) status -> {
-            try {
-                buildLikeSearchPredicate(filter);
-                predicateManager.addAllPredicates(extendPredicateBuilders);
-                List<SortOrder> sortOrders = querySortOrders.isEmpty()
-                        ? this.sortOrders.isEmpty() ? getDefaultSortOrders() : this.sortOrders                          // ← 用默认
-                        : querySortOrders.stream().map(SortOrder::new).toList();
+        return prepareChunk(offset, limit, filter, querySortOrders).get();
+    }
+
+    /**
+     * 在调用线程上对谓词和排序做快照，返回的查询任务不再读取页面状态，可安全地在后台线程执行。
+     */
+    @Override
+    protected Supplier<List<T>> prepareChunk(int offset, int limit, String filter, List<QuerySortOrder> querySortOrders) {
+        return unwrapRows(prepareRows(offset, limit, filter, snapshotPredicates(filter), resolveSortOrders(querySortOrders)));
+    }
 
+    private Supplier<List<GenericRepository.PreviewRow<T>>> prepareRows(int offset, int limit, String filter,
+                                                                        GenericRepository.PredicateManager<E> predicates, List<SortOrder> sortOrders) {
+        // 行与其预览值一起加载（及缓存），避免命中缓存时丢失预览
+        Supplier<List<GenericRepository.PreviewRow<T>>> loader = () -> genericRepository.execute((TransactionCallback<List<GenericRepository.PreviewRow<T>>>) status -> {
+            try {
                 int page = offset / limit;
 
-                List<E> entities = genericRepository.getPage(entityClass, page, limit, predicateManager, sortOrders);
-                List<T> result = entities.stream().map(this::convertToDto).collect(Collectors.toList());
+                List<GenericRepository.PreviewRow<T>> result;
+                if (previewLengths.isEmpty() && jsonPaths.isEmpty()) {
+                    result = genericRepository.getPage(entityClass, page, limit, predicates, sortOrders).stream()
+                            .map(e -> new GenericRepository.PreviewRow<>(convertToDto(e), Map.<String, GenericRepository.Preview>of(), Map.<String, String>of()))
+                            .collect(Collectors.toList());
+                } else {
+                    result = genericRepository.getPreviewPage(entityClass, page, limit, predicates, sortOrders, projection).stream()
+                            .map(row -> new GenericRepository.PreviewRow<>(convertToDto(row.entity(), row.jsonValues()), row.previews(), row.jsonValues()))
+                            .collect(Collectors.toList());
+                }
                 log.debug("加载 page={} limit={} filter={} 条数：{}", page, limit, filter, result.size());
                 return result;
             } catch (Exception e) {
@@ -211,20 +707,151 @@ public abstract class BaseRepositoryTablePage<
                 throw new RuntimeException("查询失败", e);
             }
         });
+
+        String cacheKey = sharedCacheKey(predicates);
+        if (cacheKey == null) {
+            return loader;
+        }
+        String sortKey = sortOrders.stream()
+                .map(o -> o.getProperty() + ":" + o.getDirection())
+                .collect(Collectors.joining(","));
+        String blockKey = cacheKey + "|sort=" + sortKey + "|" + offset + "+" + limit;
+        return () -> SharedTablePageCache.of(genericRepository).get(entityClass, blockKey, sharedCacheTtl(), loader, this::copyRows);
+    }
+
+    /**
+     * 共享缓存中的行被多个会话共享，交给页面的是表格模型的副本（集合字段复制一层容器）
+     */
+    private List<GenericRepository.PreviewRow<T>> copyRows(List<GenericRepository.PreviewRow<T>> rows) {
+        List<GenericRepository.PreviewRow<T>> copies = new ArrayList<>(rows.size());
+        for (GenericRepository.PreviewRow<T> row : rows) {
+            T dto = FormModelCopier.of(row.entity().getClass()).copy(row.entity(), true);
+            copies.add(new GenericRepository.PreviewRow<>(dto,
+                    Collections.unmodifiableMap(row.previews()), Collections.unmodifiableMap(row.jsonValues())));
+        }
+        return copies;
+    }
+
+    /**
+     * 展开加载结果：登记各行的预览值，并记录已加载的行 id（供实时刷新判断哪些行正在显示）
+     */
+    private Supplier<List<T>> unwrapRows(Supplier<List<GenericRepository.PreviewRow<T>>> loader) {
+        boolean liveUpdates = getTableConfig().liveUpdates();
+        return () -> {
+            List<T> result = new ArrayList<>();
+            for (GenericRepository.PreviewRow<T> row : loader.get()) {
+                T t = row.entity();
+                if (!row.previews().isEmpty()) rowPreviews.put(t.getId(), row.previews());
+                if (liveUpdates) loadedIds.add(t.getId());
+                result.add(t);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * 记录正在显示的行，供实时刷新判断哪些变更需要逐行刷新。
+     * 不经过 {@link #prepareChunk} 加载数据的子类（如树形表格的子节点）需自行调用。
+     */
+    protected void trackLoadedItems(Collection<T> items) {
+        if (!getTableConfig().liveUpdates()) return;
+        for (T item : items) {
+            loadedIds.add(item.getId());
+        }
     }
 
     @Override
     protected Long getTotalSize(String filter) {
-        return genericRepository.execute((TransactionCallback<Long>) status -> {
+        return prepareTotalSize(filter).get();
+    }
+
+    @Override
+    protected Supplier<Long> prepareTotalSize(String filter) {
+        GenericRepository.PredicateManager<E> predicates = snapshotPredicates(filter);
+        Supplier<Long> loader = () -> genericRepository.execute((TransactionCallback<Long>) status -> {
             try {
-                buildLikeSearchPredicate(filter);
-                predicateManager.addAllPredicates(extendPredicateBuilders);
-                return genericRepository.getTotalSize(entityClass, predicateManager);
+                return genericRepository.getTotalSize(entityClass, predicates);
             } catch (Exception e) {
                 status.setRollbackOnly();
                 throw new RuntimeException("统计失败", e);
             }
         });
+
+        String cacheKey = sharedCacheKey(predicates);
+        if (cacheKey == null) {
+            return loader;
+        }
+        return () -> SharedTablePageCache.of(genericRepository).get(entityClass, cacheKey + "|count", sharedCacheTtl(), loader);
+    }
+
+    /**
+     * 实体上标记了 {@link TableField#groupable()} 的列时开启分组视图
+     */
+    @Override
+    protected GroupSource<T> getGroupSource() {
+        return getMetadata().getGroupableColumns().isEmpty() ? null : groupSource;
+    }
+
+    /**
+     * 导出：以数据库游标遍历当前筛选与排序下的全部数据，逐行转换为表格模型
+     */
+    @Override
+    protected TableExporter.RowSource<T> prepareExport(String filter, List<QuerySortOrder> querySortOrders) {
+        GenericRepository.PredicateManager<E> predicates = snapshotPredicates(filter);
+        List<SortOrder> sortOrders = resolveSortOrders(querySortOrders);
+        return consumer -> genericRepository.execute((TransactionCallback<Long>) status ->
+                genericRepository.forEach(entityClass, predicates, sortOrders, EXPORT_FETCH_SIZE,
+                        entity -> consumer.accept(convertToDto(entity))));
+    }
+
+    protected List<SortOrder> resolveSortOrders(List<QuerySortOrder> querySortOrders) {
+        return querySortOrders.isEmpty()
+                ? this.sortOrders.isEmpty() ? getDefaultSortOrders() : this.sortOrders                          // ← 用默认
+                : querySortOrders.stream().map(this::toSortOrder).toList();
+    }
+
+    private SortOrder toSortOrder(QuerySortOrder querySortOrder) {
+        SortOrder sortOrder = new SortOrder(querySortOrder);
+        sortOrder.setJsonPath(jsonPaths.get(sortOrder.getProperty()));
+        return sortOrder;
+    }
+
+    /**
+     * JSONB 路径列的等值条件（<code>jsonb_extract_path_text(...) = value</code>），可命中同样写法的表达式索引，
+     * 用于 {@link #extendPredicate}
+     */
+    public GenericRepository.PredicateBuilder<E> jsonPathEquals(String columnKey, String value) {
+        GenericRepository.JsonPath jsonPath = jsonPaths.get(columnKey);
+        if (jsonPath == null) throw new IllegalArgumentException("不是 JSONB 路径列：" + columnKey);
+        return GenericRepository.keyed("json:" + columnKey + "=" + value, (cb, root, preds) ->
+                preds.add(value == null ? cb.isNull(jsonPath.toExpression(cb, root)) : cb.equal(jsonPath.toExpression(cb, root), value)));
+    }
+
+    /**
+     * 共享缓存键；未开启共享缓存或存在与用户相关的谓词时返回 null（绕过缓存）
+     */
+    private String sharedCacheKey(GenericRepository.PredicateManager<E> predicates) {
+        if (!getTableConfig().sharedCache()) return null;
+        String predicateKey = predicates.getCacheKey();
+        // 不同的表格模型即使查询相同实体，DTO 也不同
+        return predicateKey == null ? null : tableClass.getName() + "|" + predicateKey;
+    }
+
+    private Duration sharedCacheTtl() {
+        return Duration.ofSeconds(getTableConfig().sharedCacheTtlSeconds());
+    }
+
+    /**
+     * 当前谓词（含扩展谓词与关键字搜索）的独立快照
+     */
+    protected GenericRepository.PredicateManager<E> snapshotPredicates(String filter) {
+        predicateManager.addAllPredicates(extendPredicateBuilders);
+        GenericRepository.PredicateManager<E> snapshot = predicateManager.copy();
+        GenericRepository.PredicateBuilder<E> likeSearch = buildLikeSearchPredicate(filter);
+        if (likeSearch != null) {
+            snapshot.putPredicate("likeSearch", likeSearch);
+        }
+        return snapshot;
     }
 
     /**
@@ -244,19 +871,9 @@ public abstract class BaseRepositoryTablePage<
      * 显式指定 SQL 类型；若未指定，则自动根据 Java 类型推断，
      * 且 <b>List 类型默认视为 JSONB</b>。</p>
      */
-    // Add this helper method to your BaseRepositoryTablePage class
     private TableField findTableFieldAnnotation(String fieldKey) {
-        return Arrays.stream(tableClass.getDeclaredFields())
-                .filter(f -> f.isAnnotationPresent(TableField.class))
-                .filter(f -> {
-                    TableField tf = f.getAnnotation(TableField.class);
-                    // Use the 'key' if specified, otherwise the field name.
-                    String key = tf.key().isEmpty() ? f.getName() : tf.key();
-                    return key.equals(fieldKey);
-                })
-                .map(f -> f.getAnnotation(TableField.class))
-                .findFirst()
-                .orElse(null);
+        TableModelMetadata.Column column = getMetadata().getColumn(fieldKey);
+        return column == null ? null : column.annotation();
     }
     /**
      * Constructs a fuzzy search predicate based on the provided filter text.
@@ -266,24 +883,29 @@ public abstract class BaseRepositoryTablePage<
      * to 'text' using the native text() function before applying the 'LOWER'
      * and 'LIKE' operations. This prevents "function lower(type) does not exist" errors.</p>
      */
-    private void buildLikeSearchPredicate(String filter) {
-        // 1. Remove any previous search predicate to avoid conflicts.
-        predicateManager.removePredicate("likeSearch");
-
-        // 2. If the filter is empty, there's nothing to do.
+    private GenericRepository.PredicateBuilder<E> buildLikeSearchPredicate(String filter) {
+        // 1. If the filter is empty, there's nothing to do.
         if (filter == null || filter.isBlank()) {
-            return;
+            return null;
         }
 
-        // 3. Prepare the lowercase search pattern for case-insensitive matching.
+        // 2. Prepare the lowercase search pattern for case-insensitive matching.
         final String lowerPattern = "%" + filter.toLowerCase() + "%";
+        // 3. Resolve the searchable fields up front; the builder may run on another thread.
+        final List<String> likeSearchFieldNames = super.getLikeSearchFieldNames();
 
-        predicateManager.putPredicate("likeSearch", (cb, root, predicates) -> {
+        return GenericRepository.keyed("like:" + lowerPattern, (cb, root, predicates) -> {
             List<Predicate> likes = new ArrayList<>();
 
             // 4. Iterate over all field names designated for fuzzy search.
-            for (String fieldName : super.getLikeSearchFieldNames()) {
+            for (String fieldName : likeSearchFieldNames) {
                 try {
+                    GenericRepository.JsonPath jsonPath = jsonPaths.get(fieldName);
+                    if (jsonPath != null) {
+                        // JSONB path columns already project text.
+                        likes.add(cb.like(cb.lower(jsonPath.toExpression(cb, root)), lowerPattern));
+                        continue;
+                    }
                     Path<?> path = root.get(fieldName);
                     Class<?> javaType = path.getJavaType();
 
@@ -316,7 +938,29 @@ public abstract class BaseRepositoryTablePage<
     }
 
 
-    private T convertToDto(E entity) {
+    protected T convertToDto(E entity) {
+        T dto = newDto(entity);
+        if (!jsonPaths.isEmpty()) {
+            // 完整实体（导出、实时刷新、详情等）在 Java 侧按路径取值
+            BeanWrapperImpl wrapper = new BeanWrapperImpl(entity);
+            Map<String, String> values = new HashMap<>();
+            jsonPaths.forEach((key, jsonPath) -> {
+                Object document = wrapper.getPropertyValue(jsonPath.source());
+                if (document != null) values.put(key, jsonPath.read(document));
+            });
+            applyJsonValues(dto, values);
+        }
+        return dto;
+    }
+
+    /**
+     * 列表查询的行：JSONB 路径值已由数据库投影取出，直接写入，不再在 Java 侧解析文档
+     */
+    private T convertToDto(E entity, Map<String, String> jsonValues) {
+        return applyJsonValues(newDto(entity), jsonValues);
+    }
+
+    private T newDto(E entity) {
         try {
             T dto = tableClass.getDeclaredConstructor().newInstance();
             dto.formEntity(entity);
@@ -326,16 +970,44 @@ public abstract class BaseRepositoryTablePage<
         }
     }
 
+    /**
+     * 将 JSONB 路径的文本值写入表格模型对应字段（按字段类型转换）
+     */
+    private T applyJsonValues(T dto, Map<String, String> values) {
+        values.forEach((key, text) -> {
+            TableModelMetadata.Column column = getMetadata().getColumn(key);
+            try {
+                Class<?> fieldType = column.field().getType();
+                column.set(dto, fieldType == String.class ? text : TypeUtil.convert(text, fieldType, null));
+            } catch (RuntimeException e) {
+                log.warn("无法写入 JSONB 路径列 {}：{}", key, e.getMessage());
+            }
+        });
+        return dto;
+    }
+
     /**
      * 扩展筛选器入口
      */
     public void extendPredicate(String key, GenericRepository.PredicateBuilder<E> predicateBuilder) {
         this.extendPredicateBuilders.put(key, predicateBuilder);
+        bulkSelection.clear();
+        updateBulkStatus();
         predicateManager.addAllPredicates(extendPredicateBuilders);
         refresh();
     }
 
+    @Override
+    public void applyFilter(String keyword) {
+        // 筛选条件变化后，“全部匹配”的含义随之改变，清空选择
+        bulkSelection.clear();
+        updateBulkStatus();
+        super.applyFilter(keyword);
+    }
+
     public void onResetFilterEvent() {
+        bulkSelection.clear();
+        updateBulkStatus();
         predicateManager.clearPredicates();
         presetPredicate();
         predicateManager.addAllPredicates(extendPredicateBuilders);
@@ -361,6 +1033,27 @@ public abstract class BaseRepositoryTablePage<
         return true;
     }
 
+    /**
+     * 是否显示勾选列与批量操作栏
+     */
+    public Boolean enableBulkActions() {
+        return false;
+    }
+
+    /**
+     * 是否提供“删除所选”（单条 DELETE 语句，不触发级联与实体回调）
+     */
+    public Boolean enableBulkDelete() {
+        return false;
+    }
+
+    /**
+     * 批量操作列表，见 {@link BulkAction#update} / {@link BulkAction#forEach}
+     */
+    public List<BulkAction<E>> getBulkActions() {
+        return List.of();
+    }
+
     @Override
     public void beforeEnter(BeforeEnterEvent event) {
         BasePage.super.beforeEnter(event);
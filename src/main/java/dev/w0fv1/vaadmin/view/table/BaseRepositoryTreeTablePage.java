@@ -0,0 +1,237 @@
+package dev.w0fv1.vaadmin.view.table;
+
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.treegrid.TreeGrid;
+import com.vaadin.flow.data.provider.ConfigurableFilterDataProvider;
+import com.vaadin.flow.data.provider.hierarchy.AbstractBackEndHierarchicalDataProvider;
+import com.vaadin.flow.data.provider.hierarchy.HierarchicalQuery;
+import dev.w0fv1.vaadmin.GenericRepository;
+import dev.w0fv1.vaadmin.GenericRepository.SortOrder;
+import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+import dev.w0fv1.vaadmin.view.form.model.BaseEntityFormModel;
+import dev.w0fv1.vaadmin.view.table.model.BaseEntityTableModel;
+import dev.w0fv1.vaadmin.view.table.model.TableModelMetadata;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 自关联实体（如带 parent 属性的分类、组织）的树形表格页。
+ * <p>
+ * - 每个展开的节点按页懒加载子节点；<br/>
+ * - 每加载一页节点，用一次分组查询得到这些节点的子节点数，用于显示展开箭头；<br/>
+ * - 关键字搜索时先查出匹配节点，再用递归 CTE 找出其全部祖先，只显示并展开这些路径。
+ * <p>
+ * 层级列默认使用 id 列，可通过 {@link #getHierarchyColumnKey()} 指定。
+ */
+@Slf4j
+public abstract class BaseRepositoryTreeTablePage<
+        T extends BaseEntityTableModel<E, ID>,
+        F extends BaseEntityFormModel<E, ID>,
+        E extends BaseManageEntity<ID>,
+        ID> extends BaseRepositoryTablePage<T, F, E, ID> {
+
+    /**
+     * 搜索时最多匹配的节点数，超出部分不显示
+     */
+    private static final int SEARCH_MATCH_LIMIT = 500;
+
+    private final String parentAttribute;
+    private final TreeDataProvider treeDataProvider = new TreeDataProvider();
+
+    /**
+     * 子节点数提示（节点 id → 子节点数），刷新时清空
+     */
+    private final Map<Object, Long> childCountHints = new ConcurrentHashMap<>();
+
+    /**
+     * 搜索结果路径上的节点 id；为 null 表示未在搜索
+     */
+    private volatile Set<Object> searchPathIds;
+
+    public BaseRepositoryTreeTablePage(GenericRepository genericRepository, Class<T> tableClass, Class<F> formClass, Class<E> entityClass, String parentAttribute) {
+        this(genericRepository, tableClass, formClass, null, entityClass, parentAttribute);
+    }
+
+    public BaseRepositoryTreeTablePage(GenericRepository genericRepository, Class<T> tableClass, Class<F> formClass, F formModel, Class<E> entityClass, String parentAttribute) {
+        super(genericRepository, tableClass, formClass, formModel, entityClass, new TreeGrid<>());
+        this.parentAttribute = parentAttribute;
+    }
+
+    public TreeGrid<T> getTreeGrid() {
+        return (TreeGrid<T>) grid;
+    }
+
+    /**
+     * 层级（带展开箭头）的列 key，默认使用 id 列
+     */
+    protected String getHierarchyColumnKey() {
+        return getMetadata().getColumns().stream()
+                .filter(TableModelMetadata.Column::id)
+                .map(TableModelMetadata.Column::key)
+                .findFirst()
+                .orElse("id");
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+        buildHierarchyColumn();
+    }
+
+    @Override
+    protected void bindDataProvider(ConfigurableFilterDataProvider<T, Void, String> provider) {
+        getTreeGrid().setItems(treeDataProvider);
+    }
+
+    /**
+     * 用层级列替换同 key 的普通列，并移到最前
+     */
+    private void buildHierarchyColumn() {
+        String key = getHierarchyColumnKey();
+        TableModelMetadata.Column column = getMetadata().getColumn(key);
+        if (column == null) {
+            log.warn("层级列 {} 不存在于 {}", key, getMetadata().getType().getSimpleName());
+            return;
+        }
+        Grid.Column<T> original = grid.getColumnByKey(key);
+        if (original != null) grid.removeColumn(original);
+
+        Grid.Column<T> hierarchy = getTreeGrid().addHierarchyColumn(item -> {
+                    Object value = column.get(item);
+                    return value == null ? "-" : value.toString();
+                })
+                .setKey(key)
+                .setHeader(column.header())
+                .setAutoWidth(true)
+                .setFrozen(true);
+
+        List<Grid.Column<T>> order = new ArrayList<>();
+        order.add(hierarchy);
+        grid.getColumns().stream().filter(c -> c != hierarchy).forEach(order::add);
+        grid.setColumnOrder(order);
+    }
+
+    @Override
+    public void refresh() {
+        childCountHints.clear();
+        searchPathIds = resolveSearchPaths(getCurrentFilter());
+        super.refresh();
+        expandSearchPaths();
+    }
+
+    /**
+     * 搜索：匹配节点 + 递归 CTE 得到的祖先节点，返回 节点 id 集合；无关键字时返回 null
+     */
+    private Set<Object> resolveSearchPaths(String filter) {
+        if (filter == null || filter.isBlank()) return null;
+        GenericRepository.PredicateManager<E> predicates = snapshotPredicates(filter);
+        return genericRepository.execute((TransactionCallback<Set<Object>>) status -> {
+            List<Object> matched = genericRepository.getPage(getEntityClass(), 0, SEARCH_MATCH_LIMIT, predicates, getDefaultSortOrders())
+                    .stream().map(e -> (Object) e.getId()).toList();
+            if (matched.size() == SEARCH_MATCH_LIMIT) {
+                log.info("树形搜索匹配超过 {} 个节点，只显示前 {} 个", SEARCH_MATCH_LIMIT, SEARCH_MATCH_LIMIT);
+            }
+            return new HashSet<>(genericRepository.findAncestorPaths(getEntityClass(), parentAttribute, matched).keySet());
+        });
+    }
+
+    /**
+     * 展开搜索路径上所有带子节点的节点
+     */
+    private void expandSearchPaths() {
+        Set<Object> pathIds = searchPathIds;
+        if (pathIds == null || pathIds.isEmpty()) return;
+        List<T> ancestors = genericRepository.execute((TransactionCallback<List<T>>) status -> {
+            Map<Object, Long> counts = genericRepository.countChildren(getEntityClass(), treePredicates(), parentAttribute, pathIds);
+            childCountHints.putAll(counts);
+            return genericRepository.findAll(new ArrayList<>(counts.keySet()), getEntityClass()).stream()
+                    .map(this::convertToDto)
+                    .toList();
+        });
+        getTreeGrid().expand(ancestors);
+    }
+
+    /**
+     * 树查询使用的谓词：筛选条件（关键字搜索改由路径集合表达）
+     */
+    private GenericRepository.PredicateManager<E> treePredicates() {
+        GenericRepository.PredicateManager<E> predicates = snapshotPredicates(null);
+        Set<Object> pathIds = searchPathIds;
+        if (pathIds != null) {
+            List<Object> ids = new ArrayList<>(pathIds);
+            predicates.putPredicate("treeSearchPath", (cb, root, preds) ->
+                    preds.add(ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids)));
+        }
+        return predicates;
+    }
+
+    private GenericRepository.PredicateManager<E> childPredicates(T parent) {
+        GenericRepository.PredicateManager<E> predicates = treePredicates();
+        if (parent == null) {
+            predicates.putPredicate("treeParent", (cb, root, preds) -> preds.add(root.get(parentAttribute).isNull()));
+        } else {
+            ID parentId = parent.getId();
+            predicates.putPredicate("treeParent", (cb, root, preds) ->
+                    preds.add(cb.equal(root.get(parentAttribute).get("id"), parentId)));
+        }
+        return predicates;
+    }
+
+    private class TreeDataProvider extends AbstractBackEndHierarchicalDataProvider<T, Void> {
+
+        @Override
+        protected Stream<T> fetchChildrenFromBackEnd(HierarchicalQuery<T, Void> query) {
+            GenericRepository.PredicateManager<E> predicates = childPredicates(query.getParent());
+            GenericRepository.PredicateManager<E> countPredicates = treePredicates();
+            List<SortOrder> sortOrders = resolveSortOrders(query.getSortOrders());
+            int offset = query.getOffset();
+            int limit = query.getLimit();
+
+            List<T> children = genericRepository.execute((TransactionCallback<List<T>>) status -> {
+                List<E> entities = genericRepository.getPage(getEntityClass(), offset / limit, limit, predicates, sortOrders);
+                List<Object> ids = entities.stream().map(e -> (Object) e.getId()).toList();
+                Map<Object, Long> counts = genericRepository.countChildren(getEntityClass(), countPredicates, parentAttribute, ids);
+                ids.forEach(id -> childCountHints.put(id, counts.getOrDefault(id, 0L)));
+                return entities.stream().map(BaseRepositoryTreeTablePage.this::convertToDto).collect(Collectors.toList());
+            });
+            // 已显示的节点参与实时刷新（逐行刷新、删除判断）
+            trackLoadedItems(children);
+            log.debug("加载子节点 parent={} offset={} 条数：{}",
+                    query.getParent() == null ? null : query.getParent().getId(), offset, children.size());
+            return children.stream();
+        }
+
+        @Override
+        public int getChildCount(HierarchicalQuery<T, Void> query) {
+            T parent = query.getParent();
+            if (parent != null) {
+                Long hint = childCountHints.get(parent.getId());
+                if (hint != null) return hint.intValue();
+            }
+            GenericRepository.PredicateManager<E> predicates = childPredicates(parent);
+            return genericRepository.execute((TransactionCallback<Long>) status ->
+                    genericRepository.getTotalSize(getEntityClass(), predicates)).intValue();
+        }
+
+        @Override
+        public boolean hasChildren(T item) {
+            Long hint = childCountHints.get(item.getId());
+            if (hint != null) return hint > 0;
+            GenericRepository.PredicateManager<E> predicates = childPredicates(item);
+            long count = genericRepository.execute((TransactionCallback<Long>) status ->
+                    genericRepository.getTotalSize(getEntityClass(), predicates));
+            childCountHints.put(item.getId(), count);
+            return count > 0;
+        }
+
+        @Override
+        public Object getId(T item) {
+            return item.getId();
+        }
+    }
+}
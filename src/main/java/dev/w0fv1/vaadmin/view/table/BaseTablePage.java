@@ -2,50 +2,99 @@ package dev.w0fv1.vaadmin.view.table;
 
 import com.vaadin.flow.component.*;
 import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.combobox.MultiSelectComboBox;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Anchor;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H1;
+import com.vaadin.flow.component.html.Pre;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
+import com.vaadin.flow.component.radiobutton.RadioButtonGroup;
+import com.vaadin.flow.component.select.Select;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.provider.*;
+import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.server.streams.DownloadHandler;
+import dev.w0fv1.vaadmin.GenericRepository;
 import dev.w0fv1.vaadmin.view.table.component.BaseFieldComponent;
 import dev.w0fv1.vaadmin.view.table.component.TextTableFieldComponent;
 import dev.w0fv1.vaadmin.view.table.model.BaseTableModel;
 import dev.w0fv1.vaadmin.view.table.model.TableConfig;
 import dev.w0fv1.vaadmin.view.table.model.TableField;
+import dev.w0fv1.vaadmin.view.table.model.TableModelMetadata;
+import dev.w0fv1.vaadmin.view.tools.Notifier;
 import dev.w0fv1.vaadmin.view.tools.UITimer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.reflections.ReflectionUtils;
 
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static dev.w0fv1.vaadmin.util.JsonUtil.toPrettyJson;
-import static java.lang.reflect.Modifier.PRIVATE;
 import static org.apache.commons.lang3.StringUtils.truncate;
-import static org.reflections.ReflectionUtils.getAllFields;
 
 @Slf4j
 public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLayout {
 
     private final Class<T> tableClass;
+    @Getter
+    private final TableModelMetadata metadata;
+    @Getter
     private final TableConfig tableConfig;
 
-    protected final Grid<T> grid = new Grid<>();
+    protected final Grid<T> grid;
     private final String gridId = "a" + UUID.randomUUID().toString().replaceAll("-", "");
 
     protected final TextField likeSearchInput = new TextField();
 
     protected ConfigurableFilterDataProvider<T, Void, String> provider;
 
+    private GridBlockPrefetcher<T> prefetcher;
+    private int lastKnownSize = -1;
+    @Getter
+    private String currentFilter;
+
+    /**
+     * 异步加载模式的状态：占位行按行号复用，刷新时清空
+     */
+    private record PlaceholderKey(int position) {
+    }
+
+    private final Map<Integer, T> placeholderRows = new HashMap<>();
+    private final Map<T, Integer> placeholderPositions = new IdentityHashMap<>();
+    private CompletableFuture<Long> asyncCount;
+    private String asyncCountFilter;
+    private volatile long loadGeneration = 0;
+    private final AtomicBoolean asyncRefreshScheduled = new AtomicBoolean(false);
+    private ProgressBar loadingIndicator;
+
+    /**
+     * 完整值分块加载的块大小（字符）
+     */
+    private static final int FULL_VALUE_CHUNK = 64 * 1024;
+
+    /**
+     * 分组视图最多显示的分组数，以及最多同时分组的列数
+     */
+    private static final int GROUP_LIMIT = 1000;
+    private static final int MAX_GROUP_COLUMNS = 2;
+
+
     private boolean staticViewBuilt = false;
     private boolean dataInitialized = false;
 
@@ -63,8 +112,17 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
     private Component primaryActions;
 
     public BaseTablePage(Class<T> tableClass) {
+        this(tableClass, new Grid<>());
+    }
+
+    /**
+     * 使用指定的 Grid 实例（如 TreeGrid）
+     */
+    protected BaseTablePage(Class<T> tableClass, Grid<T> grid) {
+        this.grid = grid;
         this.tableClass = tableClass;
-        this.tableConfig = tableClass.getAnnotation(TableConfig.class);
+        this.metadata = TableModelMetadata.of(tableClass);
+        this.tableConfig = metadata.getTableConfig();
         if (tableConfig == null) throw new IllegalStateException("@TableConfig not found");
     }
 
@@ -102,10 +160,14 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
             grid.setAllRowsVisible(true);
         }
 
-        provider = DataProvider.fromFilteringCallbacks(this::fetch, this::count)
+        prefetcher = new GridBlockPrefetcher<>(
+                tableConfig.allRowsVisible() ? 0 : tableConfig.prefetchBlocks(),
+                tableConfig.maxPrefetchPerUi()
+        );
+        provider = new CallbackDataProvider<>(this::fetch, this::count, this::resolveItemId)
                 // 使用默认 FilterCombiner，避免 NPE
                 .withConfigurableFilter();
-        grid.setItems(provider);
+        bindDataProvider(provider);
         grid.setId(gridId);
 
         dataInitialized = true;
@@ -149,14 +211,42 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
     }
 
     public void refresh() {
-        provider.refreshAll();
+        loadGeneration++;
+        if (asyncCount != null) asyncCount.cancel(true);
+        asyncCount = null;
+        placeholderRows.clear();
+        placeholderPositions.clear();
+        prefetcher.invalidate();
+        grid.getDataProvider().refreshAll();
+    }
+
+    /**
+     * 将数据源绑定到 Grid，子类可替换为其它数据源（如层级数据源）
+     */
+    protected void bindDataProvider(ConfigurableFilterDataProvider<T, Void, String> provider) {
+        grid.setItems(provider);
     }
 
     public void applyFilter(String keyword) {
-        provider.setFilter(keyword == null || keyword.isBlank() ? null : keyword.trim());
+        currentFilter = keyword == null || keyword.isBlank() ? null : keyword.trim();
+        provider.setFilter(currentFilter);
         refresh();
     }
 
+    /**
+     * 用新的数据对象替换表格中标识相同（见 {@link #getItemId}）的行，不重新查询整页
+     */
+    public void refreshItem(T item) {
+        grid.getDataProvider().refreshItem(item);
+    }
+
+    /**
+     * 行标识，用于 {@link #refreshItem} 与选择状态的匹配，默认使用对象本身
+     */
+    protected Object getItemId(T item) {
+        return item;
+    }
+
 
     /**
      * 4. 完整的初始化逻辑（子类控制调用时机）
@@ -170,98 +260,207 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
     // ================ 原有的数据加载方法 ================ //
 
     private Stream<T> fetch(Query<T, String> q) {
-        return loadChunk(q.getOffset(), q.getLimit(), q.getFilter().orElse(null), q.getSortOrders()).stream();
+        String filter = q.getFilter().orElse(null);
+        List<QuerySortOrder> sortOrders = q.getSortOrders();
+        GridBlockPrefetcher.ChunkPreparer<T> preparer = (offset, limit) -> prepareChunk(offset, limit, filter, sortOrders);
+        if (!tableConfig.asyncLoading()) {
+            return prefetcher.fetch(filter, sortOrders, q.getOffset(), q.getLimit(), lastKnownSize, preparer).stream();
+        }
+
+        UI ui = UI.getCurrent();
+        long generation = loadGeneration;
+        Optional<List<T>> block = prefetcher.fetchAsync(filter, sortOrders, q.getOffset(), q.getLimit(), lastKnownSize,
+                preparer, () -> onAsyncLoaded(ui, generation));
+        if (block.isPresent()) {
+            return block.get().stream();
+        }
+        setLoading(true);
+        return placeholders(q.getOffset(), q.getLimit()).stream();
     }
 
     private int count(Query<T, String> q) {
-        return getTotalSize(q.getFilter().orElse(null)).intValue();
+        String filter = q.getFilter().orElse(null);
+        if (tableConfig.asyncLoading()) {
+            return countAsync(filter);
+        }
+        lastKnownSize = getTotalSize(filter).intValue();
+        return lastKnownSize;
     }
 
-    // ================ 以下代码保留原有逻辑不变 ================ //
+    /**
+     * 异步统计总数：统计完成前沿用上一次的总数（首次按一页估算）
+     */
+    private int countAsync(String filter) {
+        if (asyncCount == null || !Objects.equals(asyncCountFilter, filter)) {
+            if (asyncCount != null) asyncCount.cancel(true);
+            UI ui = UI.getCurrent();
+            long generation = loadGeneration;
+            asyncCountFilter = filter;
+            asyncCount = CompletableFuture.supplyAsync(prepareTotalSize(filter), GridBlockPrefetcher.EXECUTOR);
+            asyncCount.whenComplete((size, e) -> {
+                if (e instanceof CancellationException) return;
+                if (e != null) log.error("统计总数失败", e);
+                onAsyncLoaded(ui, generation);
+            });
+        }
+        if (!asyncCount.isDone()) {
+            setLoading(true);
+            return lastKnownSize >= 0 ? lastKnownSize : tableConfig.pageSize();
+        }
+        if (!asyncCount.isCompletedExceptionally()) {
+            lastKnownSize = asyncCount.join().intValue();
+        }
+        return Math.max(lastKnownSize, 0);
+    }
 
-    private void buildGridColumns() {
-        List<Field> fields = new ArrayList<>(getAllFields(tableClass, ReflectionUtils.withModifier(PRIVATE)).stream().toList());
-        fields.sort(Comparator.comparingDouble(f -> {
-            TableField tableField = f.getAnnotation(TableField.class);
+    /**
+     * 后台加载完成（后台线程）：过期的结果直接丢弃，否则合并为一次 UI 刷新
+     */
+    private void onAsyncLoaded(UI ui, long generation) {
+        if (ui == null || generation != loadGeneration) return;
+        if (!asyncRefreshScheduled.compareAndSet(false, true)) return;
+        try {
+            ui.access(() -> {
+                asyncRefreshScheduled.set(false);
+                setLoading(false);
+                // 不经过 refresh()：已加载的数据块保留，Grid 重新读取时直接命中
+                provider.refreshAll();
+            });
+        } catch (UIDetachedException e) {
+            asyncRefreshScheduled.set(false);
+        }
+    }
 
-            // 设置冻结列的排序值为最小（确保它排在最前面）
-            if (tableField != null && tableField.frozen()) {
-                return -1;  // 冻结列排最前面
-            }
+    private List<T> placeholders(int offset, int limit) {
+        List<T> rows = new ArrayList<>(limit);
+        for (int position = offset; position < offset + limit; position++) {
+            rows.add(placeholderRows.computeIfAbsent(position, this::newPlaceholder));
+        }
+        return rows;
+    }
 
-            // 非冻结列按原来的 order 排序
-            return Optional.ofNullable(tableField).map(TableField::order).orElse(100);
-        }));
-        for (Field f : fields) {
-            f.setAccessible(true);
-            TableField tf = f.getAnnotation(TableField.class);
-            String header = tf != null && !tf.displayName().isEmpty() ? tf.displayName() : f.getName();
-            String columnKey = tf != null && !tf.key().isEmpty() ? tf.key() : f.getName();
+    private T newPlaceholder(int position) {
+        try {
+            T row = tableClass.getDeclaredConstructor().newInstance();
+            placeholderPositions.put(row, position);
+            return row;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建占位行：" + tableClass.getName(), e);
+        }
+    }
+
+    /**
+     * 是否为异步加载期间显示的占位行
+     */
+    public boolean isPlaceholder(T item) {
+        return placeholderPositions.containsKey(item);
+    }
+
+    private Object resolveItemId(T item) {
+        Integer position = placeholderPositions.get(item);
+        return position != null ? new PlaceholderKey(position) : getItemId(item);
+    }
+
+    private void setLoading(boolean loading) {
+        if (loadingIndicator != null) loadingIndicator.setVisible(loading);
+    }
+
+    private static Component skeletonCell() {
+        Div skeleton = new Div();
+        skeleton.getStyle()
+                .set("width", "6em")
+                .set("height", "0.8em")
+                .set("border-radius", "var(--lumo-border-radius-s)")
+                .set("background", "var(--lumo-contrast-10pct)");
+        return skeleton;
+    }
+
+    // ================ 以下代码保留原有逻辑不变 ================ //
+
+    private void buildGridColumns() {
+        for (TableModelMetadata.Column column : metadata.getColumns()) {
+            String columnKey = column.key();
             Grid.Column<T> col;  // <—— 把列句柄留下，后面统一处理冻结
 
-            if (tf != null && tf.sortable()) {
-                col = grid.addColumn(item -> getComparableFieldValue(item, f))
-                        .setHeader(header).setSortable(true).setKey(columnKey).setAutoWidth(true);
+            if (column.sortable()) {
+                col = grid.addColumn(item -> getComparableFieldValue(item, column))
+                        .setHeader(column.header()).setSortable(true).setKey(columnKey).setAutoWidth(true);
             } else {
-                col = grid.addComponentColumn(item -> buildSpanCell(item, f))
-                        .setHeader(header).setKey(columnKey).setAutoWidth(true);
+                col = grid.addComponentColumn(item -> buildSpanCell(item, column))
+                        .setHeader(column.header()).setKey(columnKey).setAutoWidth(true);
             }
             /* ---------- 新增逻辑：根据注解决定是否冻结 ---------- */
-            if (tf != null && (tf.frozen() || tf.id())) {
+            if (column.frozen() || column.id()) {
                 col.setFrozen(true);      // → 冻结到左边
                 // 如需禁止用户拖动改变顺序，可再加：col.setReorderable(false);
             }
-            if (tf != null && (tf.sortable() || tf.id())) {
+            if (column.sortable() || column.id()) {
                 col.setSortable(true);
             }
 
         }
         extendGridColumns();
-        grid.addItemClickListener(e -> onItemClicked(e.getItem()));
-        grid.addItemDoubleClickListener(e -> onItemDoubleClicked(e.getItem()));
+        grid.addItemClickListener(e -> {
+            if (!isPlaceholder(e.getItem())) onItemClicked(e.getItem());
+        });
+        grid.addItemDoubleClickListener(e -> {
+            if (!isPlaceholder(e.getItem())) onItemDoubleClicked(e.getItem());
+        });
         grid.setColumnReorderingAllowed(true);
     }
 
-    private Component buildSpanCell(T item, Field f) {
-        try {
-            Object value = f.get(item);
-            String displayValue;
-
-            if (value == null) {
-                displayValue = "-";
-            } else if (value instanceof Collection<?> coll) {
-                // 检查是否为枚举集合
-                if (!coll.isEmpty() && coll.iterator().next() instanceof Enum<?>) {
-                    displayValue = coll.stream()
-                            .map(v -> ((Enum<?>) v).name())  // 或 getDisplayName() 如果实现接口
-                            .reduce((a, b) -> a + ", " + b)
-                            .orElse("-");
-                } else {
-                    displayValue = coll.toString(); // 非枚举集合
-                }
-            } else if (value.getClass().isEnum()) {
-                displayValue = ((Enum<?>) value).name();
-            } else {
-                displayValue = value.toString();
-            }
+    private Component buildSpanCell(T item, TableModelMetadata.Column column) {
+        return buildSpanCell(item, column, getPreviewSource());
+    }
 
-            Span span = new Span(truncate(displayValue, 25));
+    private Component buildSpanCell(T item, TableModelMetadata.Column column, PreviewSource<T> previews) {
+        if (isPlaceholder(item)) return skeletonCell();
+        Field f = column.field();
+        String columnKey = column.key();
+        GenericRepository.Preview preview = previews == null ? null : previews.getPreview(item, columnKey);
+        if (preview != null) {
+            String text = preview.text() == null ? "-" : truncate(preview.text(), 25);
+            boolean more = preview.truncated() || (preview.text() != null && preview.text().length() > 25);
+            Span span = new Span(more ? text + "…" : text);
             span.getStyle().set("cursor", "pointer");
-            span.addClickListener(ev -> onFieldClick(item, f, value));
+            span.setTitle("共 " + preview.length() + " 字符");
+            span.addClickListener(ev -> openFullValueDialog(previews, item, f, columnKey, preview));
             return span;
-
-        } catch (IllegalAccessException e) {
-            return new Span("Error");
         }
+        Object value = column.get(item);
+        String displayValue;
+
+        if (value == null) {
+            displayValue = "-";
+        } else if (value instanceof Collection<?> coll) {
+            // 检查是否为枚举集合
+            if (!coll.isEmpty() && coll.iterator().next() instanceof Enum<?>) {
+                displayValue = coll.stream()
+                        .map(v -> ((Enum<?>) v).name())  // 或 getDisplayName() 如果实现接口
+                        .reduce((a, b) -> a + ", " + b)
+                        .orElse("-");
+            } else {
+                displayValue = coll.toString(); // 非枚举集合
+            }
+        } else if (value.getClass().isEnum()) {
+            displayValue = ((Enum<?>) value).name();
+        } else {
+            displayValue = value.toString();
+        }
+
+        Span span = new Span(truncate(displayValue, 25));
+        span.getStyle().set("cursor", "pointer");
+        span.addClickListener(ev -> onFieldClick(item, f, value));
+        return span;
     }
 
-    private Comparable<?> getComparableFieldValue(T item, Field f) {
-        try {
-            Object v = f.get(item);
-            return v instanceof Comparable<?> c ? c : (v == null ? "" : v.toString());
-        } catch (IllegalAccessException e) {
-            return "";
-        }
+    private Comparable<?> getComparableFieldValue(T item, TableModelMetadata.Column column) {
+        if (isPlaceholder(item)) return "";
+        PreviewSource<T> previews = getPreviewSource();
+        GenericRepository.Preview preview = previews == null ? null : previews.getPreview(item, column.key());
+        if (preview != null) return preview.text() == null ? "" : preview.text();
+        Object v = column.get(item);
+        return v instanceof Comparable<?> c ? c : (v == null ? "" : v.toString());
     }
 
 
@@ -269,6 +468,13 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
         primaryActions = extendPrimaryAction();
         titleBar = new HorizontalLayout(new H1(getTitle()), new Button(VaadinIcon.REFRESH.create(), v -> refresh()), primaryActions);
         titleBar.setAlignItems(Alignment.END);
+        if (tableConfig.asyncLoading()) {
+            loadingIndicator = new ProgressBar();
+            loadingIndicator.setIndeterminate(true);
+            loadingIndicator.setWidth("8em");
+            loadingIndicator.setVisible(false);
+            titleBar.add(loadingIndicator);
+        }
         add(titleBar);
         if (!getDescription().isEmpty()) add(new Span(getDescription()));
     }
@@ -337,11 +543,189 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
         dataActions.setWidthFull(); // 关键：让 HorizontalLayout 占满宽度
 
         dataActions.add(extendDataAction());
+        if (enableGrouping() && getGroupSource() != null) dataActions.add(new Button("分组", e -> openGroupDialog()));
+        if (enableExport()) dataActions.add(new Button("导出", e -> openExportDialog()));
         if (enableCreate()) dataActions.add(new Button("创建", e -> onCreateEvent()));
         dataActions.setJustifyContentMode(JustifyContentMode.END);
         add(dataActions);
     }
 
+    /**
+     * 导出对话框：选择格式与列范围，下载链接按当前筛选和排序流式生成文件
+     */
+    private void openExportDialog() {
+        Select<TableExporter.Format> format = new Select<>();
+        format.setLabel("格式");
+        format.setItems(TableExporter.Format.values());
+        format.setItemLabelGenerator(f -> f.name());
+        format.setValue(TableExporter.Format.XLSX);
+
+        RadioButtonGroup<Boolean> scope = new RadioButtonGroup<>();
+        scope.setLabel("列");
+        scope.setItems(true, false);
+        scope.setItemLabelGenerator(visibleOnly -> visibleOnly ? "当前可见列" : "全部列");
+        scope.setValue(true);
+
+        Anchor download = new Anchor();
+        download.add(new Button("下载", VaadinIcon.DOWNLOAD.create()));
+        download.getElement().setAttribute("download", true);
+
+        Runnable updateLink = () -> download.setHref(
+                buildExportHandler(format.getValue(), scope.getValue()));
+        format.addValueChangeListener(e -> updateLink.run());
+        scope.addValueChangeListener(e -> updateLink.run());
+        updateLink.run();
+
+        Dialog dialog = new Dialog();
+        dialog.setHeaderTitle("导出");
+        dialog.add(new VerticalLayout(format, scope));
+        dialog.getFooter().add(new Button("关闭", e -> dialog.close()), download);
+        dialog.addOpenedChangeListener(e -> {
+            if (!e.isOpened()) remove(dialog);
+        });
+        add(dialog);
+        dialog.open();
+    }
+
+    /**
+     * 在 UI 线程对列、筛选与排序做快照；下载请求中再执行查询并写出
+     */
+    private DownloadHandler buildExportHandler(TableExporter.Format format, boolean visibleOnly) {
+        List<TableModelMetadata.Column> columns = visibleOnly
+                ? grid.getColumns().stream()
+                .filter(Grid.Column::isVisible)
+                .map(Grid.Column::getKey)
+                .filter(key -> key != null && metadata.getColumn(key) != null)
+                .map(metadata::getColumn)
+                .toList()
+                : metadata.getColumns();
+        TableExporter.RowSource<T> rows = prepareExport(currentFilter,
+                grid.getDataCommunicator().getBackEndSorting());
+        String fileName = (getTitle().isBlank() ? tableClass.getSimpleName() : getTitle())
+                + "." + format.getExtension();
+
+        return event -> {
+            event.setFileName(fileName);
+            event.setContentType(format.getContentType());
+            try (OutputStream out = event.getOutputStream()) {
+                TableExporter.write(format, columns, rows, out);
+            }
+        };
+    }
+
+    /**
+     * 分组视图：选择一到两个分组列，数据库按当前筛选条件 GROUP BY 得到各组数量与合计；
+     * 展开分组时才按“筛选条件 + 分组键”分页加载组内数据。
+     */
+    private void openGroupDialog() {
+        GroupSource<T> source = getGroupSource();
+        List<TableModelMetadata.Column> summable = metadata.getSummableColumns();
+        String filter = currentFilter;
+
+        MultiSelectComboBox<TableModelMetadata.Column> groupBy = new MultiSelectComboBox<>("分组列");
+        groupBy.setItems(metadata.getGroupableColumns());
+        groupBy.setItemLabelGenerator(TableModelMetadata.Column::header);
+        groupBy.setHelperText("最多 " + MAX_GROUP_COLUMNS + " 列");
+
+        Grid<GenericRepository.Group> groupGrid = new Grid<>();
+        groupGrid.setHeight("60vh");
+        Span summary = new Span();
+
+        groupBy.addValueChangeListener(e -> {
+            if (e.getValue().size() > MAX_GROUP_COLUMNS) {
+                groupBy.setValue(e.getOldValue());
+                return;
+            }
+            // 保持列表中的列顺序，而不是勾选顺序
+            List<TableModelMetadata.Column> columns = metadata.getGroupableColumns().stream()
+                    .filter(e.getValue()::contains)
+                    .toList();
+            List<String> groupKeys = columns.stream().map(TableModelMetadata.Column::key).toList();
+
+            groupGrid.removeAllColumns();
+            groupGrid.setItems(List.of());
+            summary.setText("");
+            if (columns.isEmpty()) return;
+
+            for (int i = 0; i < columns.size(); i++) {
+                int index = i;
+                groupGrid.addColumn(group -> formatGroupKey(group.keys().get(index)))
+                        .setHeader(columns.get(i).header()).setAutoWidth(true);
+            }
+            groupGrid.addColumn(GenericRepository.Group::count).setHeader("数量").setAutoWidth(true);
+            for (TableModelMetadata.Column column : summable) {
+                groupGrid.addColumn(group -> Objects.toString(group.sums().get(column.key()), "-"))
+                        .setHeader(column.header() + "（合计）").setAutoWidth(true);
+            }
+            groupGrid.setItemDetailsRenderer(new ComponentRenderer<>(group -> buildGroupMembers(source, group, groupKeys, filter)));
+
+            List<GenericRepository.Group> groups = source.loadGroups(filter, groupKeys,
+                    summable.stream().map(TableModelMetadata.Column::key).toList(), GROUP_LIMIT);
+            groupGrid.setItems(groups);
+            summary.setText("共 " + groups.size() + " 组");
+            if (groups.size() >= GROUP_LIMIT) {
+                Notifier.showNotification("分组过多，只显示数量最多的 " + GROUP_LIMIT + " 组", NotificationVariant.LUMO_WARNING);
+            }
+        });
+
+        Dialog dialog = new Dialog();
+        dialog.setHeaderTitle("分组" + (filter == null ? "" : "（筛选：" + filter + "）"));
+        dialog.setWidth("80vw");
+        dialog.setResizable(true);
+        dialog.add(new VerticalLayout(new HorizontalLayout(groupBy, summary), groupGrid));
+        dialog.getFooter().add(new Button("关闭", e -> dialog.close()));
+        dialog.addOpenedChangeListener(e -> {
+            if (!e.isOpened()) remove(dialog);
+        });
+        add(dialog);
+        dialog.open();
+    }
+
+    /**
+     * 组内数据：懒加载分页，总数直接使用分组统计的数量。
+     * 预览值只登记在本组内，单元格与主表格相同（截断的预览可点击查看完整值）。
+     */
+    private Component buildGroupMembers(GroupSource<T> source, GenericRepository.Group group, List<String> groupKeys, String filter) {
+        PreviewSource<T> pagePreviews = getPreviewSource();
+        Map<Object, Map<String, GenericRepository.Preview>> memberPreviews = new ConcurrentHashMap<>();
+        PreviewSource<T> previews = pagePreviews == null ? null : new PreviewSource<>() {
+            @Override
+            public GenericRepository.Preview getPreview(T item, String columnKey) {
+                Map<String, GenericRepository.Preview> row = memberPreviews.get(getItemId(item));
+                return row == null ? null : row.get(columnKey);
+            }
+
+            @Override
+            public String loadFullText(T item, String columnKey, long offset, int length) {
+                return pagePreviews.loadFullText(item, columnKey, offset, length);
+            }
+        };
+
+        Grid<T> members = new Grid<>();
+        members.setHeight("300px");
+        for (TableModelMetadata.Column column : metadata.getColumns()) {
+            members.addComponentColumn(item -> buildSpanCell(item, column, previews))
+                    .setHeader(column.header()).setKey(column.key()).setAutoWidth(true)
+                    .setSortable(column.sortable() || column.id());
+        }
+        members.setItems(DataProvider.fromCallbacks(
+                query -> source.prepareGroupChunk(group, groupKeys, query.getOffset(), query.getLimit(), filter, query.getSortOrders())
+                        .get().stream()
+                        .map(row -> {
+                            if (!row.previews().isEmpty()) memberPreviews.put(getItemId(row.entity()), row.previews());
+                            return row.entity();
+                        }),
+                query -> (int) Math.min(group.count(), Integer.MAX_VALUE)));
+        members.addItemDoubleClickListener(e -> onItemDoubleClicked(e.getItem()));
+        return members;
+    }
+
+    private static String formatGroupKey(Object key) {
+        if (key == null) return "（空）";
+        if (key instanceof Enum<?> e) return e.name();
+        return key.toString();
+    }
+
     private String getFieldStringValue(T item, Field f, int max) {
         try {
             Object v = f.get(item);
@@ -370,28 +754,45 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
     }
 
     public List<String> getLikeSearchFieldNames() {
-        List<String> fieldNames = new ArrayList<>();
-        Set<Field> fields = getAllFields(tableClass, ReflectionUtils.withModifier(PRIVATE));
-        for (Field f : fields) {
-            TableField annotation = f.getAnnotation(TableField.class);
-            if (annotation != null && annotation.likeSearch()) {
-                String key = annotation.key();
-                if (key != null && !key.isBlank()) {
-                    fieldNames.add(key);
-                } else {
-                    fieldNames.add(f.getName());
-                }
-            }
-        }
-        return fieldNames;
+        return metadata.getLikeSearchKeys();
     }
 
     // ======= 抽象方法保留原接口 ======= //
 
     protected abstract List<T> loadChunk(int offset, int limit, String filter, List<QuerySortOrder> sortOrders);
 
+    /**
+     * 准备一次分页加载：本方法在 UI 线程调用，返回的任务可能在后台虚拟线程中执行（预取）。
+     * 子类若在 {@link #loadChunk} 中读取页面的可变状态，应在此处先做快照。
+     */
+    protected Supplier<List<T>> prepareChunk(int offset, int limit, String filter, List<QuerySortOrder> sortOrders) {
+        return () -> loadChunk(offset, limit, filter, sortOrders);
+    }
+
     protected abstract Long getTotalSize(String filter);
 
+    /**
+     * 准备导出，约定同 {@link #prepareChunk}：在 UI 线程调用，返回的数据源在下载请求中执行。
+     * 默认按数据块分批调用 {@link #loadChunk}；子类可改为数据库游标。
+     */
+    protected TableExporter.RowSource<T> prepareExport(String filter, List<QuerySortOrder> sortOrders) {
+        int blockSize = 1000;
+        return consumer -> {
+            for (int offset = 0; ; offset += blockSize) {
+                List<T> block = loadChunk(offset, blockSize, filter, sortOrders);
+                block.forEach(consumer);
+                if (block.size() < blockSize) return;
+            }
+        };
+    }
+
+    /**
+     * 准备一次总数统计，约定同 {@link #prepareChunk}：在 UI 线程调用，返回的任务可能在后台执行。
+     */
+    protected Supplier<Long> prepareTotalSize(String filter) {
+        return () -> getTotalSize(filter);
+    }
+
     public abstract void onCreateEvent();
 
     // ======= 扩展点，保留原有方法 ======= //
@@ -477,7 +878,7 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
     }
 
     public <V extends Component> Grid.Column<T> extendGridComponentColumn(ValueProvider<T, V> componentProvider) {
-        return this.grid.addComponentColumn(componentProvider);
+        return this.grid.addComponentColumn(item -> isPlaceholder(item) ? skeletonCell() : componentProvider.apply(item));
     }
 
     public void onItemClicked(T item) {
@@ -486,6 +887,81 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
     public void onItemDoubleClicked(T item) {
     }
 
+    /**
+     * 分组视图的数据来源，不支持分组时返回 null
+     */
+    protected GroupSource<T> getGroupSource() {
+        return null;
+    }
+
+    /**
+     * 预览列（见 {@link TableField#previewLength()}）的数据来源，不支持预览时返回 null
+     */
+    protected PreviewSource<T> getPreviewSource() {
+        return null;
+    }
+
+    /**
+     * 按需加载预览列的完整值：小值直接读取，大值分块在后台读取并逐块推送到对话框
+     */
+    private void openFullValueDialog(PreviewSource<T> previews, T item, Field field, String columnKey, GenericRepository.Preview preview) {
+        TableField tableField = field.getAnnotation(TableField.class);
+        String label = tableField != null && !tableField.displayName().isEmpty() ? tableField.displayName() : field.getName();
+
+        Pre content = new Pre();
+        content.getStyle().set("white-space", "pre-wrap").set("word-break", "break-all").set("margin", "0");
+        Div contentWrapper = new Div(content);
+        contentWrapper.getStyle()
+                .set("overflow", "auto")
+                .set("max-height", "60vh");
+
+        Dialog dialog = new Dialog();
+        dialog.setModal(true);
+        dialog.setDraggable(true);
+        dialog.setResizable(true);
+        dialog.setWidthFull();
+        dialog.setMaxWidth("800px");
+        dialog.setMaxHeight("80vh");
+        dialog.setHeaderTitle("字段详情: " + label + "（" + preview.length() + " 字符）");
+        dialog.add(contentWrapper);
+        dialog.getFooter().add(new Button("关闭", e -> dialog.close()));
+
+        if (preview.length() <= FULL_VALUE_CHUNK) {
+            content.setText(Objects.toString(previews.loadFullText(item, columnKey, 0, FULL_VALUE_CHUNK), ""));
+            dialog.open();
+            return;
+        }
+
+        ProgressBar progress = new ProgressBar(0, preview.length());
+        dialog.addComponentAsFirst(progress);
+        AtomicBoolean closed = new AtomicBoolean(false);
+        dialog.addOpenedChangeListener(e -> {
+            if (!e.isOpened()) closed.set(true);
+        });
+        dialog.open();
+
+        UI ui = UI.getCurrent();
+        Thread.startVirtualThread(() -> {
+            try {
+                for (long offset = 0; offset < preview.length() && !closed.get(); offset += FULL_VALUE_CHUNK) {
+                    String chunk = previews.loadFullText(item, columnKey, offset, FULL_VALUE_CHUNK);
+                    if (chunk == null || chunk.isEmpty()) break;
+                    long loaded = offset + chunk.length();
+                    ui.access(() -> {
+                        content.add(new Text(chunk));
+                        progress.setValue(loaded);
+                    });
+                }
+                ui.access(() -> progress.setVisible(false));
+            } catch (UIDetachedException e) {
+                log.debug("页面已分离，停止加载完整值");
+            } catch (Exception e) {
+                log.error("加载完整值失败 {}", columnKey, e);
+                ui.access(() -> content.add(new Text("\n[加载失败]")));
+            }
+        });
+    }
+
     public void onFieldClick(T item, Field field, Object value) {
         // 判断是否有 @TableField 注解
         TableField tableField = field.getAnnotation(TableField.class);
@@ -537,4 +1013,15 @@ public abstract class BaseTablePage<T extends BaseTableModel> extends VerticalLa
     public Boolean enableCreate() {
         return true;
     }
+
+    public Boolean enableExport() {
+        return true;
+    }
+
+    /**
+     * 是否显示“分组”按钮，默认在提供了 {@link #getGroupSource()} 时显示
+     */
+    public Boolean enableGrouping() {
+        return getGroupSource() != null;
+    }
 }
@@ -0,0 +1,29 @@
+package dev.w0fv1.vaadmin.view.table;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+
+import java.util.function.Consumer;
+
+/**
+ * 表格的批量操作，对 {@link BulkSelection} 表示的全部行执行：
+ * <p>
+ * - {@link #update}：一条 UPDATE 语句完成，适合直接赋值（如修改状态）。语句不经过实体，
+ * {@code @UpdateTimestamp}、{@code @PreUpdate}、{@code @Version} 等不会生效，需要时由 setter 一并设置这些列；<br/>
+ * - {@link #forEach}：按 id 分块加载实体并逐个处理后保存，适合需要实体逻辑的操作，执行时显示进度。
+ *
+ * @param label 按钮文字
+ */
+public record BulkAction<E>(String label, GenericRepository.UpdateSetter<E> setter, Consumer<E> action) {
+
+    public static <E> BulkAction<E> update(String label, GenericRepository.UpdateSetter<E> setter) {
+        return new BulkAction<>(label, setter, null);
+    }
+
+    public static <E> BulkAction<E> forEach(String label, Consumer<E> action) {
+        return new BulkAction<>(label, null, action);
+    }
+
+    public boolean isSetBased() {
+        return setter != null;
+    }
+}
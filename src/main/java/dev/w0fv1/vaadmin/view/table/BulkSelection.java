@@ -0,0 +1,103 @@
+package dev.w0fv1.vaadmin.view.table;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 表格的批量选择，不保存已加载的行：
+ * <p>
+ * - 逐行勾选：保存所选 id；<br/>
+ * - “选择全部匹配”：保存选择时的谓词快照与匹配总数，之后取消勾选的行记为排除项。<br/>
+ * 两种模式都可转换为一组谓词（{@link #toPredicates()}），供批量 SQL 使用。
+ */
+public class BulkSelection<E, ID> {
+
+    private final Set<ID> ids = new LinkedHashSet<>();
+    private final Set<ID> excluded = new LinkedHashSet<>();
+
+    /**
+     * 全部匹配模式下的谓词快照；逐行模式为 null
+     */
+    private GenericRepository.PredicateManager<E> matching;
+    @Getter
+    private long matchingCount;
+
+    public boolean isAllMatching() {
+        return matching != null;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 选中的行数（全部匹配模式为选择时的匹配数减去排除项）
+     */
+    public long size() {
+        return isAllMatching() ? Math.max(matchingCount - excluded.size(), 0) : ids.size();
+    }
+
+    public boolean contains(ID id) {
+        return isAllMatching() ? !excluded.contains(id) : ids.contains(id);
+    }
+
+    public void set(ID id, boolean selected) {
+        if (isAllMatching()) {
+            if (selected) excluded.remove(id);
+            else excluded.add(id);
+        } else {
+            if (selected) ids.add(id);
+            else ids.remove(id);
+        }
+    }
+
+    /**
+     * 选择当前筛选条件下的全部数据
+     *
+     * @param predicates 当前谓词的独立快照
+     * @param count      当前匹配总数
+     */
+    public void selectAllMatching(GenericRepository.PredicateManager<E> predicates, long count) {
+        clear();
+        this.matching = predicates;
+        this.matchingCount = count;
+    }
+
+    public void clear() {
+        ids.clear();
+        excluded.clear();
+        matching = null;
+        matchingCount = 0;
+    }
+
+    /**
+     * 以谓词表示当前选择：全部匹配 = 快照谓词 AND id NOT IN 排除项；逐行 = id IN 所选
+     */
+    public GenericRepository.PredicateManager<E> toPredicates() {
+        GenericRepository.PredicateManager<E> predicates;
+        if (isAllMatching()) {
+            predicates = matching.copy();
+            List<ID> exclusions = List.copyOf(excluded);
+            if (!exclusions.isEmpty()) {
+                predicates.putPredicate("bulkExcluded", (cb, root, preds) -> preds.add(cb.not(root.get("id").in(exclusions))));
+            }
+        } else {
+            predicates = new GenericRepository.PredicateManager<>();
+            List<ID> selected = List.copyOf(ids);
+            predicates.putPredicate("bulkSelected", (cb, root, preds) ->
+                    preds.add(selected.isEmpty() ? cb.disjunction() : root.get("id").in(selected)));
+        }
+        return predicates;
+    }
+
+    public String describe() {
+        if (isAllMatching()) {
+            return excluded.isEmpty()
+                    ? "已选择全部匹配的 " + size() + " 条"
+                    : "已选择全部匹配的 " + size() + " 条（排除 " + excluded.size() + " 条）";
+        }
+        return "已选择 " + ids.size() + " 条";
+    }
+}
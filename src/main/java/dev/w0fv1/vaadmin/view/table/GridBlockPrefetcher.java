@@ -0,0 +1,262 @@
+package dev.w0fv1.vaadmin.view.table;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 表格数据块预取器。
+ * <p>
+ * 记录 Grid 请求数据块的方向与速度，在用户浏览当前块时，
+ * 于虚拟线程中提前加载下一（或多）个数据块；
+ * 过滤条件或排序变化时丢弃并取消所有预取。
+ * 同一 UI 内同时进行中的预取请求数量受上限约束。
+ * 异步加载模式下（{@link #fetchAsync}），当前数据块本身也在后台加载，完成后再通知页面刷新。
+ *
+ * @param <T> 行数据类型
+ */
+@Slf4j
+class GridBlockPrefetcher<T> {
+
+    /**
+     * 预取在“下一秒内”将被滚动到的数据
+     */
+    private static final double LOOKAHEAD_SECONDS = 1.0;
+
+    /**
+     * 当前位置附近至少保留的数据块数（一次可见范围可能跨越多个数据块）
+     */
+    private static final int MIN_KEEP_BLOCKS = 4;
+
+    /**
+     * 预取任务的状态，用于保证许可只归还一次
+     */
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int RELEASED = 2;
+
+    static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 准备某个数据块的加载任务：在 UI 线程调用，返回的 Supplier 可在任意线程执行
+     */
+    @FunctionalInterface
+    interface ChunkPreparer<T> {
+        Supplier<List<T>> prepare(int offset, int limit);
+    }
+
+    private record BlockKey(String filter, List<String> sortOrders, int offset, int limit) {
+    }
+
+    /**
+     * 每个 UI 共享的预取许可
+     */
+    private static final class PrefetchPermits {
+        private final Semaphore semaphore;
+
+        private PrefetchPermits(int permits) {
+            this.semaphore = new Semaphore(permits);
+        }
+    }
+
+    private final int maxBlocksAhead;
+    private final int maxInFlightPerUi;
+
+    private final Map<BlockKey, CompletableFuture<List<T>>> blocks = new ConcurrentHashMap<>();
+
+    private String lastFilter;
+    private List<String> lastSortOrders = List.of();
+    private int lastOffset = -1;
+    private long lastFetchNanos;
+    private double rowsPerSecond;
+
+    GridBlockPrefetcher(int maxBlocksAhead, int maxInFlightPerUi) {
+        this.maxBlocksAhead = Math.max(0, maxBlocksAhead);
+        this.maxInFlightPerUi = Math.max(1, maxInFlightPerUi);
+    }
+
+    /**
+     * 获取数据块：优先使用已预取（或正在预取）的结果，否则同步加载；随后按滚动方向调度后续预取。
+     *
+     * @param totalSize 最近一次统计的总行数，未知时传入负数
+     */
+    List<T> fetch(String filter, List<QuerySortOrder> sortOrders, int offset, int limit, int totalSize, ChunkPreparer<T> preparer) {
+        List<String> sortKey = toSortKey(sortOrders);
+        if (!Objects.equals(filter, lastFilter) || !sortKey.equals(lastSortOrders)) {
+            invalidate();
+            lastFilter = filter;
+            lastSortOrders = sortKey;
+        }
+
+        List<T> result = null;
+        CompletableFuture<List<T>> prefetched = blocks.remove(new BlockKey(filter, sortKey, offset, limit));
+        if (prefetched != null) {
+            try {
+                result = prefetched.join();
+                log.debug("命中预取数据块 offset={} limit={}", offset, limit);
+            } catch (CancellationException | CompletionException e) {
+                log.debug("预取数据块不可用，改为同步加载 offset={} limit={}", offset, limit);
+            }
+        }
+        if (result == null) {
+            result = preparer.prepare(offset, limit).get();
+        }
+
+        int direction = trackMovement(offset);
+        if (maxBlocksAhead > 0 && limit > 0) {
+            schedulePrefetch(filter, sortKey, offset, limit, direction, totalSize, preparer);
+        }
+        return result;
+    }
+
+    /**
+     * 非阻塞获取数据块：已加载完成时直接返回（结果保留，供刷新后重复读取），
+     * 否则在后台加载并返回空，加载完成后在后台线程调用 onReady。
+     * 加载失败的数据块按空结果返回，避免反复刷新。
+     */
+    Optional<List<T>> fetchAsync(String filter, List<QuerySortOrder> sortOrders, int offset, int limit, int totalSize,
+                                 ChunkPreparer<T> preparer, Runnable onReady) {
+        List<String> sortKey = toSortKey(sortOrders);
+        if (!Objects.equals(filter, lastFilter) || !sortKey.equals(lastSortOrders)) {
+            invalidate();
+            lastFilter = filter;
+            lastSortOrders = sortKey;
+        }
+
+        BlockKey key = new BlockKey(filter, sortKey, offset, limit);
+        CompletableFuture<List<T>> block = blocks.get(key);
+        if (block == null || block.isCancelled()) {
+            block = CompletableFuture.supplyAsync(preparer.prepare(offset, limit), EXECUTOR);
+            blocks.put(key, block);
+            log.debug("后台加载数据块 offset={} limit={}", offset, limit);
+        }
+
+        int direction = trackMovement(offset);
+        if (maxBlocksAhead > 0 && limit > 0) {
+            schedulePrefetch(filter, sortKey, offset, limit, direction, totalSize, preparer);
+        }
+
+        if (!block.isDone()) {
+            block.whenComplete((result, e) -> {
+                if (!(e instanceof CancellationException)) onReady.run();
+            });
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(block.join());
+        } catch (CancellationException | CompletionException e) {
+            log.error("数据块加载失败 offset={} limit={}", offset, limit, e);
+            return Optional.of(List.of());
+        }
+    }
+
+    /**
+     * 丢弃全部预取结果（过滤条件、排序或数据发生变化时调用）
+     */
+    void invalidate() {
+        blocks.values().forEach(f -> f.cancel(true));
+        blocks.clear();
+        lastOffset = -1;
+        rowsPerSecond = 0;
+    }
+
+    /**
+     * 更新滚动速度（行/秒，指数平滑），返回滚动方向：1 向下，-1 向上
+     */
+    private int trackMovement(int offset) {
+        long now = System.nanoTime();
+        int direction = 1;
+        if (lastOffset >= 0) {
+            int delta = offset - lastOffset;
+            double seconds = Math.max((now - lastFetchNanos) / 1_000_000_000.0, 0.001);
+            double speed = Math.abs(delta) / seconds;
+            rowsPerSecond = rowsPerSecond == 0 ? speed : rowsPerSecond * 0.5 + speed * 0.5;
+            if (delta < 0) direction = -1;
+        }
+        lastOffset = offset;
+        lastFetchNanos = now;
+        return direction;
+    }
+
+    private void schedulePrefetch(String filter, List<String> sortKey, int offset, int limit, int direction,
+                                  int totalSize, ChunkPreparer<T> preparer) {
+        UI ui = UI.getCurrent();
+        if (ui == null) return;
+
+        int blocksAhead = (int) Math.ceil(rowsPerSecond * LOOKAHEAD_SECONDS / limit);
+        blocksAhead = Math.min(Math.max(blocksAhead, 1), maxBlocksAhead);
+
+        trimDistantBlocks(offset, limit, blocksAhead);
+
+        PrefetchPermits permits = getPermits(ui);
+        for (int i = 1; i <= blocksAhead; i++) {
+            int nextOffset = offset + direction * i * limit;
+            if (nextOffset < 0) break;
+            if (totalSize >= 0 && nextOffset >= totalSize) break;
+
+            BlockKey key = new BlockKey(filter, sortKey, nextOffset, limit);
+            if (blocks.containsKey(key)) continue;
+            if (!permits.semaphore.tryAcquire()) {
+                log.debug("当前 UI 预取数已达上限 {}，跳过 offset={}", maxInFlightPerUi, nextOffset);
+                break;
+            }
+
+            Supplier<List<T>> loader;
+            try {
+                loader = preparer.prepare(nextOffset, limit);
+            } catch (RuntimeException e) {
+                permits.semaphore.release();
+                throw e;
+            }
+            // 许可恰好归还一次：查询开始后由查询结束时归还；排队中被取消（任务不会再执行）时由取消归还
+            AtomicInteger state = new AtomicInteger(QUEUED);
+            Supplier<List<T>> task = () -> {
+                if (!state.compareAndSet(QUEUED, RUNNING)) return List.of();
+                try {
+                    return loader.get();
+                } finally {
+                    state.set(RELEASED);
+                    permits.semaphore.release();
+                }
+            };
+            CompletableFuture<List<T>> future = CompletableFuture.supplyAsync(task, EXECUTOR);
+            future.whenComplete((result, e) -> {
+                if (future.isCancelled() && state.compareAndSet(QUEUED, RELEASED)) permits.semaphore.release();
+            });
+            blocks.put(key, future);
+            log.debug("调度预取数据块 offset={} limit={} 速度={}行/秒", nextOffset, limit, (long) rowsPerSecond);
+        }
+    }
+
+    /**
+     * 丢弃离当前位置过远的数据块，避免长时间滚动后占用过多内存
+     */
+    private void trimDistantBlocks(int offset, int limit, int blocksAhead) {
+        int maxDistance = Math.max(blocksAhead + 1, MIN_KEEP_BLOCKS) * limit;
+        blocks.entrySet().removeIf(e -> {
+            if (Math.abs(e.getKey().offset() - offset) <= maxDistance) return false;
+            e.getValue().cancel(true);
+            return true;
+        });
+    }
+
+    private PrefetchPermits getPermits(UI ui) {
+        PrefetchPermits permits = ComponentUtil.getData(ui, PrefetchPermits.class);
+        if (permits == null) {
+            permits = new PrefetchPermits(maxInFlightPerUi);
+            ComponentUtil.setData(ui, PrefetchPermits.class, permits);
+        }
+        return permits;
+    }
+
+    private static List<String> toSortKey(List<QuerySortOrder> sortOrders) {
+        if (sortOrders == null || sortOrders.isEmpty()) return List.of();
+        return sortOrders.stream().map(o -> o.getSorted() + ":" + o.getDirection()).toList();
+    }
+}
@@ -0,0 +1,28 @@
+package dev.w0fv1.vaadmin.view.table;
+
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import dev.w0fv1.vaadmin.GenericRepository;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 分组视图的数据来源：按当前筛选条件做分组统计，并分页加载组内数据。
+ * <p>
+ * 表格通过 {@link BaseTablePage#getGroupSource()} 提供；不支持分组的表格返回 null。
+ * 两个方法都在 UI 线程调用，约定同 {@link BaseTablePage#prepareChunk}。
+ */
+public interface GroupSource<T> {
+
+    /**
+     * 分组统计，返回按组内数量降序的至多 limit 组
+     */
+    List<GenericRepository.Group> loadGroups(String filter, List<String> groupKeys, List<String> sumKeys, int limit);
+
+    /**
+     * 准备加载某个分组内的一页数据（当前筛选条件 + 分组键条件）。
+     * 行与其预览值一起返回，不登记到表格页（不影响主表格的实时刷新与预览状态）。
+     */
+    Supplier<List<GenericRepository.PreviewRow<T>>> prepareGroupChunk(GenericRepository.Group group, List<String> groupKeys,
+                                                                      int offset, int limit, String filter, List<QuerySortOrder> sortOrders);
+}
@@ -0,0 +1,22 @@
+package dev.w0fv1.vaadmin.view.table;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+
+/**
+ * 预览列（见 {@link dev.w0fv1.vaadmin.view.table.model.TableField#previewLength()}）的数据来源：
+ * 表格单元格显示截断的预览值，点击后按需分段读取完整值。
+ * <p>
+ * 表格通过 {@link BaseTablePage#getPreviewSource()} 提供；不支持预览的表格返回 null。
+ */
+public interface PreviewSource<T> {
+
+    /**
+     * 行的某列的截断值，该行没有预览时返回 null（使用字段的完整值）
+     */
+    GenericRepository.Preview getPreview(T item, String columnKey);
+
+    /**
+     * 读取完整值的一段（offset 从 0 开始），可能在后台线程调用
+     */
+    String loadFullText(T item, String columnKey, long offset, int length);
+}
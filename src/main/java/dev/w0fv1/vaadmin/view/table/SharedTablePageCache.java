@@ -0,0 +1,129 @@
+package dev.w0fv1.vaadmin.view.table;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 跨会话共享的表格查询结果缓存（按需开启，见 {@link dev.w0fv1.vaadmin.view.table.model.TableConfig#sharedCache()}）。
+ * <p>
+ * - 缓存键：实体类型 + 谓词形状与参数 + 排序 + 数据块；<br/>
+ * - 条目带短 TTL，并按缓存的总行数做 LRU 淘汰；<br/>
+ * - 通过 {@link GenericRepository#save}/{@link GenericRepository#delete} 的变更通知，在事务提交后失效对应实体的全部条目。<br/>
+ * 缓存的分页为不可变列表；其中的 DTO 是可变的表格模型，因此每次读取（含首次加载）都通过调用方提供的 copier
+ * 返回副本，页面修改行对象不会影响缓存及其他会话。
+ */
+@Slf4j
+public class SharedTablePageCache {
+
+    /**
+     * 所有条目合计最多缓存的行数
+     */
+    private static final int MAX_WEIGHT = 100_000;
+
+    private static final Map<GenericRepository, SharedTablePageCache> INSTANCES = new WeakHashMap<>();
+
+    private record CacheKey(Class<?> entityClass, String key) {
+    }
+
+    private record Entry(Object value, int weight, long expiresAt) {
+    }
+
+    private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Class<?>, Long> generations = new HashMap<>();
+    private int totalWeight = 0;
+
+    private SharedTablePageCache(GenericRepository genericRepository) {
+        genericRepository.addEntityChangeListener(change -> invalidate(change.entityClass()));
+    }
+
+    /**
+     * 获取与仓库绑定的缓存实例（每个仓库一个，首次获取时注册变更监听）
+     */
+    public static SharedTablePageCache of(GenericRepository genericRepository) {
+        synchronized (INSTANCES) {
+            return INSTANCES.computeIfAbsent(genericRepository, SharedTablePageCache::new);
+        }
+    }
+
+    /**
+     * 读取不可变的值（如总数），同 {@link #get(Class, String, Duration, Supplier, UnaryOperator)}，不复制
+     */
+    public <V> V get(Class<?> entityClass, String key, Duration ttl, Supplier<V> loader) {
+        return get(entityClass, key, ttl, loader, UnaryOperator.identity());
+    }
+
+    /**
+     * 读取缓存，未命中或已过期时调用 loader 加载并写入。
+     * 加载期间若该实体发生变更，结果不会写入缓存。
+     *
+     * @param copier 复制缓存中的值，返回给调用方的总是副本，缓存中的实例不会被交出
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(Class<?> entityClass, String key, Duration ttl, Supplier<V> loader, UnaryOperator<V> copier) {
+        CacheKey cacheKey = new CacheKey(entityClass, key);
+        long generation;
+        synchronized (this) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                log.debug("共享缓存命中 {} {}", entityClass.getSimpleName(), key);
+                return copier.apply((V) entry.value());
+            }
+            if (entry != null) remove(cacheKey);
+            generation = generations.computeIfAbsent(entityClass, type -> 0L);
+        }
+
+        V value = loader.get();
+        if (value instanceof List<?> list) {
+            value = (V) List.copyOf(list);
+        }
+
+        synchronized (this) {
+            if (generations.getOrDefault(entityClass, 0L) == generation) {
+                int weight = value instanceof Collection<?> c ? Math.max(c.size(), 1) : 1;
+                remove(cacheKey);
+                entries.put(cacheKey, new Entry(value, weight, System.currentTimeMillis() + ttl.toMillis()));
+                totalWeight += weight;
+                evict();
+            }
+        }
+        return copier.apply(value);
+    }
+
+    /**
+     * 失效某实体类型（及其父类型、子类型）的全部条目
+     */
+    public synchronized void invalidate(Class<?> entityClass) {
+        generations.replaceAll((type, generation) -> related(type, entityClass) ? generation + 1 : generation);
+        generations.putIfAbsent(entityClass, 1L);
+        List<CacheKey> stale = entries.keySet().stream()
+                .filter(k -> related(k.entityClass(), entityClass))
+                .toList();
+        stale.forEach(this::remove);
+        if (!stale.isEmpty()) {
+            log.debug("共享缓存失效 {}，移除 {} 条", entityClass.getSimpleName(), stale.size());
+        }
+    }
+
+    private static boolean related(Class<?> a, Class<?> b) {
+        return a.isAssignableFrom(b) || b.isAssignableFrom(a);
+    }
+
+    private void remove(CacheKey key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) totalWeight -= removed.weight();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<CacheKey, Entry>> it = entries.entrySet().iterator();
+        while (totalWeight > MAX_WEIGHT && it.hasNext()) {
+            Map.Entry<CacheKey, Entry> eldest = it.next();
+            totalWeight -= eldest.getValue().weight();
+            it.remove();
+        }
+    }
+}
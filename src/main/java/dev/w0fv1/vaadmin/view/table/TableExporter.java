@@ -0,0 +1,147 @@
+package dev.w0fv1.vaadmin.view.table;
+
+import dev.w0fv1.vaadmin.view.table.model.TableModelMetadata.Column;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static dev.w0fv1.vaadmin.util.JsonUtil.toJsonString;
+
+/**
+ * 表格导出：逐行写出 CSV / XLSX，不在内存中保留全部数据。
+ * <p>
+ * - CSV 直接写入输出流（带 UTF-8 BOM，便于 Excel 识别编码）；<br/>
+ * - XLSX 使用 POI SXSSF，内存中只保留最近 {@link #XLSX_ROW_WINDOW} 行，其余刷到临时文件；
+ * 单个工作表写满后自动续写到新的工作表。
+ */
+@Slf4j
+public class TableExporter {
+
+    private static final int XLSX_ROW_WINDOW = 100;
+    private static final int XLSX_MAX_ROWS_PER_SHEET = 1_000_000;
+    private static final int XLSX_MAX_CELL_LENGTH = 32_767;
+
+    @Getter
+    public enum Format {
+        CSV("csv", "text/csv; charset=UTF-8"),
+        XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+    }
+
+    /**
+     * 导出数据源：按顺序回调每一行，实现方负责游标与资源的释放
+     */
+    @FunctionalInterface
+    public interface RowSource<T> {
+        void forEach(Consumer<T> consumer);
+    }
+
+    private TableExporter() {
+    }
+
+    /**
+     * 将数据源全部写出到输出流，返回写出的行数（不含表头）
+     */
+    public static <T> long write(Format format, List<Column> columns, RowSource<T> rows, OutputStream out) throws IOException {
+        long count = switch (format) {
+            case CSV -> writeCsv(columns, rows, out);
+            case XLSX -> writeXlsx(columns, rows, out);
+        };
+        log.info("导出完成 format={} columns={} rows={}", format, columns.size(), count);
+        return count;
+    }
+
+    private static <T> long writeCsv(List<Column> columns, RowSource<T> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+        CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                .setHeader(columns.stream().map(Column::header).toArray(String[]::new))
+                .get());
+        long[] count = {0};
+        rows.forEach(item -> {
+            try {
+                for (Column column : columns) {
+                    printer.print(formatValue(column.get(item)));
+                }
+                printer.println();
+                count[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        printer.flush();
+        return count[0];
+    }
+
+    private static <T> long writeXlsx(List<Column> columns, RowSource<T> rows, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            long[] count = {0};
+            Sheet[] sheet = {newSheet(workbook, columns)};
+            int[] rowIndex = {1};
+            rows.forEach(item -> {
+                if (rowIndex[0] > XLSX_MAX_ROWS_PER_SHEET) {
+                    sheet[0] = newSheet(workbook, columns);
+                    rowIndex[0] = 1;
+                }
+                Row row = sheet[0].createRow(rowIndex[0]++);
+                for (int i = 0; i < columns.size(); i++) {
+                    String value = formatValue(columns.get(i).get(item));
+                    if (value.length() > XLSX_MAX_CELL_LENGTH) {
+                        value = value.substring(0, XLSX_MAX_CELL_LENGTH);
+                    }
+                    row.createCell(i).setCellValue(value);
+                }
+                count[0]++;
+            });
+            workbook.write(out);
+            return count[0];
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static Sheet newSheet(SXSSFWorkbook workbook, List<Column> columns) {
+        Sheet sheet = workbook.createSheet("Sheet" + (workbook.getNumberOfSheets() + 1));
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < columns.size(); i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(columns.get(i).header());
+        }
+        return sheet;
+    }
+
+    private static String formatValue(Object value) {
+        return switch (value) {
+            case null -> "";
+            case Enum<?> e -> e.name();
+            case Collection<?> coll when !coll.isEmpty() && coll.iterator().next() instanceof Enum<?> ->
+                    coll.stream().map(e -> ((Enum<?>) e).name()).collect(Collectors.joining(", "));
+            case Map<?, ?> map -> toJsonString(map);
+            case Collection<?> coll -> toJsonString(coll);
+            default -> value.toString();
+        };
+    }
+}
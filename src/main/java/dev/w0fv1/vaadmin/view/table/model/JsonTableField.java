@@ -5,8 +5,24 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * JSONB 路径列：字段值取自实体 JSONB 属性中的一个路径，列表查询在 SQL 中投影（只传输该标量），
+ * 不加载整个文档；列的排序与 {@link TableField#likeSearch()} 也作用于同一路径表达式。
+ * <p>
+ * 字段类型为 String 或可由文本转换的标量类型（数字、布尔、枚举）。
+ * 当 source 属性本身不是表格列时，列表查询不加载它，{@code formEntity} 中读到的 source 为 null。
+ */
 @Target({ElementType.FIELD})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface JsonTableField {
 
+    /**
+     * 实体上的 JSONB 属性名
+     */
+    String source();
+
+    /**
+     * 路径，如 <code>$.address.city</code>、<code>$.items[0].name</code>，只支持成员与数组下标
+     */
+    String path();
 }
@@ -19,4 +19,41 @@ public @interface TableConfig {
     boolean allRowsVisible() default false;
 
     boolean autoScrollRight() default true;
+
+    /**
+     * 滚动时在后台预取的最大数据块数，0 表示关闭预取。
+     */
+    int prefetchBlocks() default 2;
+
+    /**
+     * 同一 UI 内同时进行中的预取请求上限。
+     */
+    int maxPrefetchPerUi() default 4;
+
+    /**
+     * 是否启用跨会话共享的查询结果缓存。
+     * 仅当所有谓词都声明了缓存键（见 GenericRepository#keyed）时才会命中，与当前用户相关的谓词自动绕过缓存。
+     */
+    boolean sharedCache() default false;
+
+    /**
+     * 共享缓存条目的存活时间（秒）。
+     */
+    int sharedCacheTtlSeconds() default 10;
+
+    /**
+     * 是否订阅实体变更并实时刷新表格（需要启用 Push 才能即时送达）。
+     */
+    boolean liveUpdates() default true;
+
+    /**
+     * 实时刷新的合并窗口（毫秒），窗口内的变更合并为一次推送。
+     */
+    int liveUpdateDelayMillis() default 500;
+
+    /**
+     * 异步加载模式：查询在后台虚拟线程中执行，不占用会话锁；
+     * 加载期间表格显示占位行与进度条，完成后通过 Push 刷新。
+     */
+    boolean asyncLoading() default false;
 }
@@ -27,6 +27,22 @@ public @interface TableField {
     public String likeSearchName() default "";
     boolean frozen() default false;
 
+    /**
+     * 大字段预览：大于 0 时，列表查询只在数据库侧截取前 N 个字符及其长度，不加载完整值；
+     * 点击单元格时再按 id 读取完整值。字段 key 需与实体属性名一致，0 表示关闭。
+     */
+    int previewLength() default 0;
+
+    /**
+     * 可作为分组列（SQL GROUP BY），时间类型按日期分组。字段 key 需与实体属性名一致。
+     */
+    boolean groupable() default false;
+
+    /**
+     * 分组时对该列求和（数值列）。字段 key 需与实体属性名一致。
+     */
+    boolean summable() default false;
+
     /**
      * 指定使用的组件类（暂时保留接口，当前逻辑只支持String->TextFieldComponent）
      */
@@ -0,0 +1,180 @@
+package dev.w0fv1.vaadmin.view.table.model;
+
+import dev.w0fv1.vaadmin.util.TypeUtil;
+import lombok.Getter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import static dev.w0fv1.vaadmin.util.TypeUtil.isBaseType;
+
+/**
+ * 表格模型 / 实体类的列元数据，进程内每个类只解析一次（{@link ClassValue}，随类卸载回收）。
+ * <p>
+ * - {@link #getColumns()}：表格模型的私有字段，冻结列在前，其余按 {@link TableField#order()} 排序；<br/>
+ * - {@link #getBaseTypeColumns()}：基础类型字段（实体选择页使用），按 order 排序；<br/>
+ * - {@link #getGroupableColumns()} / {@link #getSummableColumns()}：分组视图可用的分组列与求和列；<br/>
+ * - {@link #getJsonColumns()}：{@link JsonTableField} 声明的 JSONB 路径列；<br/>
+ * - 列的读写通过预先生成的 {@link MethodHandle}，查询与渲染路径上不再扫描字段和注解。
+ * <p>
+ * 实例不可变，可在任意线程共享。
+ */
+@Getter
+public final class TableModelMetadata {
+
+    private static final ClassValue<TableModelMetadata> REGISTRY = new ClassValue<>() {
+        @Override
+        protected TableModelMetadata computeValue(Class<?> type) {
+            return new TableModelMetadata(type);
+        }
+    };
+
+    /**
+     * 单列元数据
+     *
+     * @param annotation 字段上的 {@link TableField}，可能为 null
+     * @param json       字段上的 {@link JsonTableField}，可能为 null
+     * @param setter     写入句柄，final 字段为 null
+     */
+    public record Column(
+            Field field,
+            String key,
+            String header,
+            int order,
+            boolean id,
+            boolean frozen,
+            boolean sortable,
+            boolean likeSearch,
+            TableField.SqlType sqlType,
+            int previewLength,
+            boolean groupable,
+            boolean summable,
+            TableField annotation,
+            JsonTableField json,
+            MethodHandle getter,
+            MethodHandle setter
+    ) {
+        /**
+         * 读取该列在对象上的值
+         */
+        public Object get(Object item) {
+            try {
+                return getter.invoke(item);
+            } catch (Throwable e) {
+                throw new IllegalStateException("无法读取字段：" + field.getName(), e);
+            }
+        }
+
+        /**
+         * 写入该列在对象上的值，值类型不匹配时抛出 {@link ClassCastException}
+         */
+        public void set(Object item, Object value) {
+            if (setter == null) {
+                throw new IllegalStateException("字段不可写入：" + field.getName());
+            }
+            try {
+                setter.invoke(item, value);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("无法写入字段：" + field.getName(), e);
+            }
+        }
+    }
+
+    private final Class<?> type;
+    private final TableConfig tableConfig;
+    private final List<Column> columns;
+    private final List<Column> baseTypeColumns;
+    private final List<String> likeSearchKeys;
+    private final Map<String, Integer> previewLengths;
+    private final List<Column> groupableColumns;
+    private final List<Column> summableColumns;
+    private final List<Column> jsonColumns;
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, Column> columnsByKey;
+
+    public static TableModelMetadata of(Class<?> type) {
+        return REGISTRY.get(type);
+    }
+
+    private TableModelMetadata(Class<?> type) {
+        this.type = type;
+        this.tableConfig = type.getAnnotation(TableConfig.class);
+
+        List<Column> all = new ArrayList<>();
+        for (Field field : TypeUtil.declaredFieldsWithSuperclasses(type)) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            all.add(buildColumn(field));
+        }
+
+        List<Column> privateColumns = new ArrayList<>(all.stream()
+                .filter(c -> Modifier.isPrivate(c.field().getModifiers()))
+                .toList());
+        // 冻结列排最前面，非冻结列按 order 排序
+        privateColumns.sort(Comparator.comparingInt(c -> c.frozen() ? -1 : c.order()));
+        this.columns = List.copyOf(privateColumns);
+
+        List<Column> baseColumns = new ArrayList<>(all.stream()
+                .filter(c -> isBaseType(c.field().getType()))
+                .toList());
+        baseColumns.sort(Comparator.comparingInt(Column::order));
+        this.baseTypeColumns = List.copyOf(baseColumns);
+
+        Map<String, Column> byKey = new LinkedHashMap<>();
+        Map<String, Integer> previews = new LinkedHashMap<>();
+        List<String> likeKeys = new ArrayList<>();
+        for (Column column : columns) {
+            byKey.putIfAbsent(column.key(), column);
+            if (column.likeSearch()) likeKeys.add(column.key());
+            if (column.previewLength() > 0) previews.put(column.key(), column.previewLength());
+        }
+        this.columnsByKey = Collections.unmodifiableMap(byKey);
+        this.likeSearchKeys = List.copyOf(likeKeys);
+        this.previewLengths = Collections.unmodifiableMap(previews);
+        this.groupableColumns = columns.stream().filter(Column::groupable).toList();
+        this.summableColumns = columns.stream().filter(Column::summable).toList();
+        this.jsonColumns = columns.stream().filter(c -> c.json() != null).toList();
+    }
+
+    /**
+     * 按列 key 查找（表格模型列），不存在时返回 null
+     */
+    public Column getColumn(String key) {
+        return columnsByKey.get(key);
+    }
+
+    private static Column buildColumn(Field field) {
+        TableField tf = field.getAnnotation(TableField.class);
+        MethodHandle getter;
+        MethodHandle setter;
+        try {
+            field.setAccessible(true);
+            getter = MethodHandles.lookup().unreflectGetter(field);
+            setter = Modifier.isFinal(field.getModifiers()) ? null : MethodHandles.lookup().unreflectSetter(field);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalStateException("无法访问字段：" + field.getDeclaringClass().getName() + "." + field.getName(), e);
+        }
+        return new Column(
+                field,
+                tf != null && !tf.key().isEmpty() ? tf.key() : field.getName(),
+                tf != null && !tf.displayName().isEmpty() ? tf.displayName() : field.getName(),
+                tf != null ? tf.order() : 100,
+                tf != null && tf.id(),
+                tf != null && tf.frozen(),
+                tf != null && tf.sortable(),
+                tf != null && tf.likeSearch(),
+                tf != null ? tf.sqlType() : TableField.SqlType.AUTO,
+                tf != null ? tf.previewLength() : 0,
+                tf != null && tf.groupable(),
+                tf != null && tf.summable(),
+                tf,
+                field.getAnnotation(JsonTableField.class),
+                getter,
+                setter
+        );
+    }
+}
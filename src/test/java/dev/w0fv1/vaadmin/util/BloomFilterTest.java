@@ -0,0 +1,60 @@
+package dev.w0fv1.vaadmin.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void addedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user-" + i), "漏判：user-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfigured() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user-" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("other-" + i)) falsePositives++;
+        }
+        // 期望约 1%，留足余量避免偶然波动
+        assertTrue(falsePositives < probes * 0.02, "误判率过高：" + falsePositives + "/" + probes);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(filter.mightContain(i));
+        }
+    }
+
+    /**
+     * 按 String.valueOf 计算哈希：数值 id 与其字符串形式视为同一个值
+     */
+    @Test
+    void valuesAreComparedByStringForm() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.add(42L);
+        assertTrue(filter.mightContain("42"));
+        assertTrue(filter.mightContain(42));
+    }
+
+    @Test
+    void toleratesZeroExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        filter.add("a");
+        assertTrue(filter.mightContain("a"));
+    }
+}
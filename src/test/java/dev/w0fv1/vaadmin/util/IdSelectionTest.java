@@ -0,0 +1,79 @@
+package dev.w0fv1.vaadmin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdSelectionTest {
+
+    @Test
+    void longIdsAreStoredCompactly() {
+        assertTrue(IdSelection.isCompact(Long.class));
+        assertTrue(IdSelection.isCompact(int.class));
+        assertFalse(IdSelection.isCompact(String.class));
+
+        IdSelection<Long> selection = new IdSelection<>(Long.class);
+        assertTrue(selection.add(3L));
+        assertFalse(selection.add(3L));
+        assertFalse(selection.add(null));
+        selection.addAll(List.of(1L, 2L));
+        assertEquals(3, selection.size());
+        assertTrue(selection.contains(2L));
+        // 按数值比较，与装箱类型无关
+        assertTrue(selection.contains(2));
+        assertFalse(selection.contains("2"));
+        assertFalse(selection.contains(null));
+
+        assertTrue(selection.remove(2L));
+        assertFalse(selection.contains(2L));
+        assertEquals(2, selection.size());
+    }
+
+    @Test
+    void integerIdsAreBoxedBackAsIntegers() {
+        IdSelection<Integer> selection = new IdSelection<>(Integer.class);
+        selection.add(7);
+        assertEquals(Integer.valueOf(7), selection.first());
+        assertEquals(List.of(7), selection.toList());
+        assertInstanceOf(Integer.class, selection.toList().get(0));
+    }
+
+    @Test
+    void otherIdTypesKeepInsertionOrder() {
+        IdSelection<String> selection = new IdSelection<>(String.class);
+        selection.addAll(List.of("b", "a", "c"));
+        assertFalse(selection.add("a"));
+        assertEquals(List.of("b", "a", "c"), selection.toList());
+        assertEquals("b", selection.first());
+        assertTrue(selection.remove("a"));
+        assertEquals(List.of("b", "c"), selection.toList());
+    }
+
+    @Test
+    void toListIsReadOnlySnapshot() {
+        IdSelection<Long> selection = new IdSelection<>(Long.class);
+        selection.addAll(List.of(1L, 2L));
+        List<Long> snapshot = selection.toList();
+        selection.add(3L);
+        selection.remove(1L);
+
+        assertEquals(2, snapshot.size());
+        assertTrue(snapshot.containsAll(List.of(1L, 2L)));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(4L));
+    }
+
+    @Test
+    void emptySelection() {
+        IdSelection<Long> selection = new IdSelection<>(Long.class);
+        assertTrue(selection.isEmpty());
+        assertNull(selection.first());
+        assertTrue(selection.toList().isEmpty());
+
+        selection.add(1L);
+        selection.clear();
+        assertTrue(selection.isEmpty());
+        assertFalse(selection.contains(1L));
+    }
+}
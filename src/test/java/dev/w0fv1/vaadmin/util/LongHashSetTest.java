@@ -0,0 +1,144 @@
+package dev.w0fv1.vaadmin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void addContainsRemove() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.contains(42));
+        assertFalse(set.contains(43));
+        assertEquals(1, set.size());
+
+        assertTrue(set.remove(42));
+        assertFalse(set.remove(42));
+        assertFalse(set.contains(42));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void zeroIsStoredSeparately() {
+        LongHashSet set = new LongHashSet();
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        set.add(-1);
+        assertTrue(set.contains(0));
+        assertEquals(2, set.size());
+        assertArrayEquals(new long[]{-1, 0}, sorted(set.toArray()));
+
+        assertTrue(set.remove(0));
+        assertFalse(set.contains(0));
+        assertEquals(1, set.size());
+    }
+
+    /**
+     * 同一槽位的探测链：删除链头/链中元素后，后续元素回移，仍能找到
+     */
+    @Test
+    void removeShiftsBackCollidingEntries() {
+        // 容量 8、阈值 4，加入 4 个元素不扩容
+        LongHashSet set = new LongHashSet(4);
+        int mask = 7;
+        int home = 6;
+        long[] colliding = valuesWithHome(home, mask, 3);
+        long next = valuesWithHome((home + 1) & mask, mask, 1)[0];
+        for (long value : colliding) set.add(value);
+        // 槽位 6、7 已被占用，链跨过数组末尾回到 0
+        set.add(next);
+
+        assertTrue(set.remove(colliding[0]));
+        for (int i = 1; i < colliding.length; i++) {
+            assertTrue(set.contains(colliding[i]), "链上元素丢失：" + colliding[i]);
+        }
+        assertTrue(set.contains(next));
+
+        assertTrue(set.remove(colliding[1]));
+        assertTrue(set.contains(colliding[2]));
+        assertTrue(set.contains(next));
+        assertEquals(2, set.size());
+
+        // 删除后重新加入，不产生重复
+        assertTrue(set.add(colliding[0]));
+        assertFalse(set.add(colliding[2]));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    void growsAndKeepsAllValues() {
+        LongHashSet set = new LongHashSet(2);
+        for (long i = 1; i <= 10_000; i++) {
+            assertTrue(set.add(i * 31));
+        }
+        assertEquals(10_000, set.size());
+        for (long i = 1; i <= 10_000; i++) {
+            assertTrue(set.contains(i * 31));
+            assertFalse(set.contains(i * 31 + 1));
+        }
+        long[] values = sorted(set.toArray());
+        assertEquals(31, values[0]);
+        assertEquals(310_000, values[values.length - 1]);
+    }
+
+    /**
+     * 与 HashSet 对照的随机增删，值域小，碰撞与删除回移足够多
+     */
+    @Test
+    void matchesHashSetUnderRandomOperations() {
+        Random random = new Random(20261019L);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            if (i % 10_000 == 0) {
+                assertContainsExactly(expected, set);
+            }
+        }
+        assertContainsExactly(expected, set);
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        for (long value : expected) assertFalse(set.contains(value));
+    }
+
+    private static void assertContainsExactly(Set<Long> expected, LongHashSet set) {
+        assertEquals(expected.size(), set.size());
+        for (long value = -1_000; value < 1_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value), "value=" + value);
+        }
+        long[] actual = sorted(set.toArray());
+        long[] wanted = expected.stream().mapToLong(Long::longValue).sorted().toArray();
+        assertArrayEquals(wanted, actual);
+    }
+
+    /**
+     * 找出 count 个落在同一槽位的非零值（与 LongHashSet 的哈希一致）
+     */
+    private static long[] valuesWithHome(int home, int mask, int count) {
+        long[] result = new long[count];
+        int found = 0;
+        for (long value = 1; found < count; value++) {
+            long h = value * 0x9E3779B97F4A7C15L;
+            if (((int) (h ^ (h >>> 32)) & mask) == home) result[found++] = value;
+        }
+        return result;
+    }
+
+    private static long[] sorted(long[] values) {
+        Arrays.sort(values);
+        return values;
+    }
+}
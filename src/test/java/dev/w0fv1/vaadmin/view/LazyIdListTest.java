@@ -0,0 +1,91 @@
+package dev.w0fv1.vaadmin.view;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+import dev.w0fv1.vaadmin.test.Echo;
+import dev.w0fv1.vaadmin.util.IdSelection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LazyIdListTest {
+
+    private GenericRepository repository;
+    private GenericRepository.PredicateManager<Echo> predicates;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(GenericRepository.class);
+        predicates = new GenericRepository.PredicateManager<>();
+        when(repository.execute(any(TransactionCallback.class)))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void sizeDoesNotQuery() {
+        IdSelection<Long> excluded = new IdSelection<>(Long.class);
+        excluded.add(5L);
+        LazyIdList<Echo, Long> list = new LazyIdList<>(repository, Echo.class, predicates, excluded, 1_500);
+
+        assertEquals(1_499, list.size());
+        assertFalse(list.isEmpty());
+        assertFalse(list.isMaterialized());
+        assertEquals(1_500, list.getMatchingCount());
+        verifyNoInteractions(repository);
+    }
+
+    /**
+     * 按 id 键集分块读取：满块时以最后一个 id 继续，不满一块时结束；排除项被跳过
+     */
+    @Test
+    void materializesByKeysetChunks() {
+        when(repository.getIdsAfter(eq(Echo.class), same(predicates), isNull(), eq(1_000))).thenReturn(ids(1, 1_000));
+        when(repository.getIdsAfter(eq(Echo.class), same(predicates), eq(1_000L), eq(1_000))).thenReturn(ids(1_001, 1_500));
+
+        IdSelection<Long> excluded = new IdSelection<>(Long.class);
+        excluded.add(5L);
+        excluded.add(1_200L);
+        LazyIdList<Echo, Long> list = new LazyIdList<>(repository, Echo.class, predicates, excluded, 1_500);
+
+        assertEquals(1L, list.get(0));
+        assertTrue(list.isMaterialized());
+        assertEquals(1_498, list.size());
+        assertFalse(list.contains(5L));
+        assertFalse(list.contains(1_200L));
+        assertEquals(1_500L, list.get(list.size() - 1));
+
+        // 只物化一次
+        assertEquals(new ArrayList<>(list), new ArrayList<>(list));
+        verify(repository, times(2)).getIdsAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void exactChunkBoundaryEndsWithEmptyChunk() {
+        when(repository.getIdsAfter(eq(Echo.class), same(predicates), isNull(), eq(1_000))).thenReturn(ids(1, 1_000));
+        when(repository.getIdsAfter(eq(Echo.class), same(predicates), eq(1_000L), eq(1_000))).thenReturn(List.of());
+
+        LazyIdList<Echo, Long> list = new LazyIdList<>(repository, Echo.class, predicates, new IdSelection<>(Long.class), 1_000);
+
+        assertEquals(1_000L, list.get(999));
+        assertEquals(1_000, list.size());
+        verify(repository, times(2)).getIdsAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void isReadOnly() {
+        LazyIdList<Echo, Long> list = new LazyIdList<>(repository, Echo.class, predicates, new IdSelection<>(Long.class), 3);
+        assertThrows(UnsupportedOperationException.class, () -> list.add(1L));
+        verifyNoInteractions(repository);
+    }
+
+    private static List<Object> ids(long from, long to) {
+        return new ArrayList<>(LongStream.rangeClosed(from, to).boxed().toList());
+    }
+}
@@ -0,0 +1,148 @@
+package dev.w0fv1.vaadmin.view.form;
+
+import dev.w0fv1.vaadmin.entity.BaseManageEntity;
+import dev.w0fv1.vaadmin.test.Echo;
+import dev.w0fv1.vaadmin.test.EchoF;
+import dev.w0fv1.vaadmin.view.form.model.BaseEntityFormModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 更新表单只写入变化属性时的比较逻辑（{@link RepositoryForm#getChangedProperties}）
+ */
+class RepositoryFormTest {
+
+    private static EchoF opened() {
+        EchoF model = new EchoF("hello");
+        model.setId(1L);
+        model.setFlag(true);
+        model.setKeywords(new ArrayList<>(List.of("a")));
+        return model;
+    }
+
+    @Test
+    void unchangedFormReportsNothing() {
+        EchoF before = opened();
+        EchoF after = before.copy(true);
+
+        Map<String, Object> changed = RepositoryForm.getChangedProperties(Echo.class, before, after);
+
+        assertNotNull(changed);
+        assertTrue(changed.isEmpty(), "不应有变化：" + changed);
+    }
+
+    /**
+     * Echo.uuid 的默认值每个实例随机；translate 未写入时不参与比较
+     */
+    @Test
+    void randomDefaultsNotWrittenByTranslateAreIgnored() {
+        EchoF before = opened();
+        EchoF after = before.copy(true);
+        after.setMessage("world");
+
+        Map<String, Object> changed = RepositoryForm.getChangedProperties(Echo.class, before, after);
+
+        assertEquals(Map.of("message", "world"), changed);
+    }
+
+    @Test
+    void writtenUuidIsCompared() {
+        EchoF before = opened();
+        before.setUuid("u1");
+        EchoF after = before.copy(true);
+        assertTrue(RepositoryForm.getChangedProperties(Echo.class, before, after).isEmpty());
+
+        after.setUuid("u2");
+        assertEquals(Map.of("uuid", "u2"), RepositoryForm.getChangedProperties(Echo.class, before, after));
+    }
+
+    @Test
+    void onlyChangedPropertiesAreReported() {
+        EchoF before = opened();
+        EchoF after = before.copy(true);
+        after.setFlag(false);
+        after.setStatus(Echo.Status.HIDDEN);
+
+        Map<String, Object> changed = RepositoryForm.getChangedProperties(Echo.class, before, after);
+
+        assertEquals(Map.of("flag", false, "status", Echo.Status.HIDDEN), changed);
+    }
+
+    @Test
+    void collectionChangesAreDetected() {
+        EchoF before = opened();
+        EchoF after = before.copy(true);
+        after.getKeywords().add("b");
+
+        Map<String, Object> changed = RepositoryForm.getChangedProperties(Echo.class, before, after);
+
+        assertEquals(List.of("a", "b"), changed.get("keywords"));
+        assertEquals(1, changed.size());
+    }
+
+    @Test
+    void clearedValueIsReportedAsNull() {
+        EchoF before = opened();
+        EchoF after = before.copy(true);
+        after.setMessage(null);
+
+        Map<String, Object> changed = RepositoryForm.getChangedProperties(Echo.class, before, after);
+
+        assertTrue(changed.containsKey("message"));
+        assertNull(changed.get("message"));
+    }
+
+    @Test
+    void returnsNullWhenEntityCannotBeInstantiated() {
+        NoDefaultConstructorF before = new NoDefaultConstructorF();
+        NoDefaultConstructorF after = new NoDefaultConstructorF();
+
+        assertNull(RepositoryForm.getChangedProperties(NoDefaultConstructor.class, before, after));
+    }
+
+    public static class NoDefaultConstructor implements BaseManageEntity<Long> {
+        private Long id;
+
+        public NoDefaultConstructor(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+
+    public static class NoDefaultConstructorF extends BaseEntityFormModel<NoDefaultConstructor, Long> {
+        private Long id;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public NoDefaultConstructor toEntity() {
+            return new NoDefaultConstructor(id);
+        }
+
+        @Override
+        public void translate(NoDefaultConstructor model) {
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dev.w0fv1.vaadmin.view.form.model;
+
+import dev.w0fv1.vaadmin.GenericRepository;
+import dev.w0fv1.vaadmin.test.Echo;
+import dev.w0fv1.vaadmin.util.IdSelection;
+import dev.w0fv1.vaadmin.view.LazyIdList;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class FormModelCopierTest {
+
+    static class ParentModel extends BaseFormModel {
+        private String name;
+    }
+
+    static class Model extends ParentModel {
+        private int count;
+        private List<String> tags = new ArrayList<>();
+        private Set<Long> ids = new HashSet<>();
+        private Map<String, Integer> scores = new HashMap<>();
+        private List<String> fixed = List.of("x");
+        private List<Long> selection;
+        private StringBuilder note = new StringBuilder("n");
+        @FormIgnore
+        private String ignored;
+    }
+
+    private static Model source() {
+        Model model = new Model();
+        ((ParentModel) model).name = "parent";
+        model.count = 3;
+        model.tags.add("a");
+        model.ids.add(1L);
+        model.scores.put("k", 1);
+        model.ignored = "secret";
+        model.addVaadminFormConfig("key", "value");
+        return model;
+    }
+
+    @Test
+    void copierIsCachedPerClass() {
+        assertSame(FormModelCopier.of(Model.class), FormModelCopier.of(Model.class));
+    }
+
+    @Test
+    void shallowCopySharesFieldValues() {
+        Model source = source();
+        Model copy = FormModelCopier.of(Model.class).copy(source, false);
+
+        assertNotSame(source, copy);
+        assertEquals("parent", ((ParentModel) copy).name);
+        assertEquals(3, copy.count);
+        assertSame(source.tags, copy.tags);
+        assertSame(source.ids, copy.ids);
+        assertSame(source.scores, copy.scores);
+    }
+
+    @Test
+    void deepCopyCopiesMutableContainers() {
+        Model source = source();
+        Model copy = FormModelCopier.of(Model.class).copy(source, true);
+
+        assertNotSame(source.tags, copy.tags);
+        assertNotSame(source.ids, copy.ids);
+        assertNotSame(source.scores, copy.scores);
+        assertEquals(source.tags, copy.tags);
+        assertEquals(source.ids, copy.ids);
+        assertEquals(source.scores, copy.scores);
+
+        copy.tags.add("b");
+        copy.ids.add(2L);
+        copy.scores.put("k", 2);
+        assertEquals(List.of("a"), source.tags);
+        assertEquals(Set.of(1L), source.ids);
+        assertEquals(Map.of("k", 1), source.scores);
+
+        // 非集合字段的值仍共享
+        assertSame(source.note, copy.note);
+    }
+
+    @Test
+    void deepCopyKeepsImmutableAndLazyListsShared() {
+        Model source = source();
+        GenericRepository repository = mock(GenericRepository.class);
+        source.selection = new LazyIdList<>(repository, Echo.class, new GenericRepository.PredicateManager<>(),
+                new IdSelection<>(Long.class), 10);
+
+        Model copy = FormModelCopier.of(Model.class).copy(source, true);
+
+        assertSame(source.fixed, copy.fixed);
+        assertSame(source.selection, copy.selection);
+        // 复制不会提前物化全部匹配的 id
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void nullContainersStayNull() {
+        Model source = source();
+        source.tags = null;
+        Model copy = FormModelCopier.of(Model.class).copy(source, true);
+        assertNull(copy.tags);
+    }
+
+    @Test
+    void formIgnoreFieldsAreNotCopied() {
+        Model copy = FormModelCopier.of(Model.class).copy(source(), true);
+        assertNull(copy.ignored);
+    }
+
+    @Test
+    void baseFormModelCopyIncludesConfigInNewMap() {
+        Model source = source();
+        Model copy = source.copy(true);
+
+        assertEquals("value", copy.getConfigString("key"));
+        assertNotSame(source.getVaadminFormConfig(), copy.getVaadminFormConfig());
+        copy.addVaadminFormConfig("other", 1);
+        assertFalse(source.getVaadminFormConfig().containsKey("other"));
+    }
+
+    @Test
+    void rejectsSourceOfAnotherClass() {
+        FormModelCopier copier = FormModelCopier.of(ParentModel.class);
+        assertThrows(IllegalArgumentException.class, () -> copier.copy(new Model(), false));
+    }
+
+    @Test
+    void requiresNoArgConstructor() {
+        assertThrows(IllegalStateException.class, () -> FormModelCopier.of(NoDefaultConstructor.class));
+    }
+
+    static class NoDefaultConstructor extends BaseFormModel {
+        NoDefaultConstructor(String value) {
+        }
+    }
+}